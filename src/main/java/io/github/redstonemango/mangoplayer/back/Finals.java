@@ -3,35 +3,37 @@ package io.github.redstonemango.mangoplayer.back;
 import javafx.scene.image.Image;
 
 public class Finals {
-    public static final Image IMAGE_SHUFFLE_ON = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/shuffle_on.png").toExternalForm());
-    public static final Image IMAGE_SHUFFLE_OFF = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/shuffle_off.png").toExternalForm());
+    public static final Image IMAGE_SHUFFLE_ON = ImageRegistry.get("shuffle_on.png");
+    public static final Image IMAGE_SHUFFLE_OFF = ImageRegistry.get("shuffle_off.png");
 
-    public static final Image IMAGE_LOOP_NONE = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/loop_none.png").toExternalForm());
-    public static final Image IMAGE_LOOP_SINGLE = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/loop_single.png").toExternalForm());
-    public static final Image IMAGE_LOOP_ALL = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/loop_all.png").toExternalForm());
+    public static final Image IMAGE_LOOP_NONE = ImageRegistry.get("loop_none.png");
+    public static final Image IMAGE_LOOP_SINGLE = ImageRegistry.get("loop_single.png");
+    public static final Image IMAGE_LOOP_ALL = ImageRegistry.get("loop_all.png");
 
-    public static final Image IMAGE_SORT_ENTRY_ON = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/sort_entry_on.png").toExternalForm());
-    public static final Image IMAGE_SORT_ENTRY_OFF = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/sort_entry_off.png").toExternalForm());
+    public static final Image IMAGE_SORT_ENTRY_ON = ImageRegistry.get("sort_entry_on.png");
+    public static final Image IMAGE_SORT_ENTRY_OFF = ImageRegistry.get("sort_entry_off.png");
 
-    public static final Image IMAGE_PLAY = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/play.png").toExternalForm());
-    public static final Image IMAGE_PLAY_THIS = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/play_this.png").toExternalForm());
-    public static final Image IMAGE_PAUSE = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/pause.png").toExternalForm());
-    public static final Image IMAGE_STOP = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/stop.png").toExternalForm());
+    public static final Image IMAGE_PLAY = ImageRegistry.get("play.png");
+    public static final Image IMAGE_PLAY_THIS = ImageRegistry.get("play_this.png");
+    public static final Image IMAGE_PAUSE = ImageRegistry.get("pause.png");
+    public static final Image IMAGE_STOP = ImageRegistry.get("stop.png");
 
-    public static final Image IMAGE_NO_SONG = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/no_song_playing.png").toExternalForm());
-    public static final Image IMAGE_THUMBNAIL_FALLBACK = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/thumbnail_fallback.png").toExternalForm());
+    public static final Image IMAGE_NO_SONG = ImageRegistry.get("no_song_playing.png");
+    public static final Image IMAGE_THUMBNAIL_FALLBACK = ImageRegistry.get("thumbnail_fallback.png");
 
-    public static final Image IMAGE_UNDETACHED = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/undetached.png").toExternalForm());
-    public static final Image IMAGE_DETACHED = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/detached.png").toExternalForm());
+    public static final Image IMAGE_UNDETACHED = ImageRegistry.get("undetached.png");
+    public static final Image IMAGE_DETACHED = ImageRegistry.get("detached.png");
 
-    public static final Image IMAGE_VOLUME_OFF = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/volume_off.png").toExternalForm());
-    public static final Image IMAGE_VOLUME_ON = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/volume_on.png").toExternalForm());
+    public static final Image IMAGE_VOLUME_OFF = ImageRegistry.get("volume_off.png");
+    public static final Image IMAGE_VOLUME_ON = ImageRegistry.get("volume_on.png");
 
-    public static final Image IMAGE_STOP_AFTER_SONG_WARNING = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/stop_after_song_warning.png").toExternalForm());
+    public static final Image IMAGE_STOP_AFTER_SONG_WARNING = ImageRegistry.get("stop_after_song_warning.png");
 
     public static final String STYLESHEET_FORM_APPLICATION_MAIN = Finals.class.getResource("/io/github/redstonemango/mangoplayer/styles/application.css").toExternalForm();
 
-    public static final Image IMAGE_SELECT = new Image(Finals.class.getResource("/io/github/redstonemango/mangoplayer/images/select.png").toExternalForm());
+    public static final Image IMAGE_SELECT = ImageRegistry.get("select.png");
+    public static final Image IMAGE_EDIT = ImageRegistry.get("edit.png");
+    public static final Image IMAGE_DELETE = ImageRegistry.get("delete.png");
 
     public static final String STYLE_CODE_SONG_PLAYING = "-fx-border-color: purple; -fx-border-width: 3;";
 }
@@ -0,0 +1,55 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import javafx.scene.image.Image;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes every bundled image once and hands out the shared instance afterward.<br>
+ * Icons are small, but list entries used to decode them again for every row. All bundled images should be obtained from here (usually through {@link Finals}).
+ */
+public class ImageRegistry {
+    private static final String IMAGE_DIRECTORY = "/io/github/redstonemango/mangoplayer/images/";
+    private static final List<String> PRELOADED_IMAGES = List.of(
+            "shuffle_on.png", "shuffle_off.png", "loop_none.png", "loop_single.png", "loop_all.png", "sort_entry_on.png", "sort_entry_off.png",
+            "play.png", "play_this.png", "pause.png", "stop.png", "no_song_playing.png", "thumbnail_fallback.png", "undetached.png", "detached.png",
+            "volume_off.png", "volume_on.png", "stop_after_song_warning.png", "select.png", "edit.png", "delete.png"
+    );
+
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+    private static final AtomicInteger decodeCount = new AtomicInteger(0);
+
+    /**
+     * @param name The file name inside the bundled images directory, e.g. {@code "delete.png"}
+     */
+    public static Image get(String name) {
+        Image image = images.get(name);
+        if (image != null) return image;
+        URL resource = ImageRegistry.class.getResource(IMAGE_DIRECTORY + name);
+        if (resource == null) throw new IllegalArgumentException("Bundled image '" + name + "' does not exist");
+        image = new Image(resource.toExternalForm()); // Decoded outside the map, so preloading threads do not block each other
+        decodeCount.incrementAndGet();
+        Image existing = images.putIfAbsent(name, image);
+        return existing != null ? existing : image;
+    }
+
+    /**
+     * Decodes all images used by {@link Finals} in parallel. Called once at startup, before any screen is built.
+     */
+    public static void preload() {
+        long start = System.currentTimeMillis();
+        PRELOADED_IMAGES.parallelStream().forEach(ImageRegistry::get);
+        System.out.println("Preloaded " + PRELOADED_IMAGES.size() + " bundled images in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * @return The number of bundled images decoded this session. Should not grow beyond the number of distinct bundled images
+     */
+    public static int getDecodeCount() {
+        return decodeCount.get();
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.*;
+
+/**
+ * Observable song list with an ID -> position index, so {@link #contains(Object)} and {@link #indexOf(Object)} do not scan the list.<br>
+ * A modification at position {@code i} only invalidates the index from {@code i} on. The invalidated part is re-indexed on the next lookup,
+ * so appending songs or a batch of modifications followed by lookups stays linear overall.
+ */
+public class IndexedSongList extends ModifiableObservableListBase<Song> {
+    private final List<Song> songs;
+    private final Map<String, Integer> positions;
+    private int indexedUpTo = 0; // Positions of all songs before this index are correct
+
+    public IndexedSongList(Collection<Song> initialSongs) {
+        songs = new ArrayList<>(initialSongs);
+        positions = new HashMap<>(songs.size() * 4 / 3 + 1);
+    }
+
+    @Override
+    public Song get(int index) {
+        return songs.get(index);
+    }
+
+    @Override
+    public int size() {
+        return songs.size();
+    }
+
+    @Override
+    protected void doAdd(int index, Song element) {
+        songs.add(index, element);
+        invalidateFrom(index);
+    }
+
+    @Override
+    protected Song doSet(int index, Song element) {
+        Song previous = songs.set(index, element);
+        invalidateFrom(index);
+        return previous;
+    }
+
+    @Override
+    protected Song doRemove(int index) {
+        Song removed = songs.remove(index);
+        positions.remove(removed.getId(), index);
+        invalidateFrom(index);
+        return removed;
+    }
+
+    /**
+     * Moves a song to another position as one change, so listeners see the song removed and added again within the same change.
+     * @param toIndex The position of the song after the move
+     */
+    public void move(int fromIndex, int toIndex) {
+        if (fromIndex == toIndex) return;
+        beginChange();
+        try {
+            add(toIndex, remove(fromIndex));
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Song song)) return -1;
+        String id = song.getId();
+        Integer position = positions.get(id);
+        if (position == null || position >= indexedUpTo || !songs.get(position).getId().equals(id)) {
+            indexRemaining();
+            position = positions.get(id);
+        }
+        return position != null && position < songs.size() && songs.get(position).getId().equals(id) ? position : -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) != -1;
+    }
+
+    private void invalidateFrom(int index) {
+        indexedUpTo = Math.min(indexedUpTo, index);
+    }
+
+    private void indexRemaining() {
+        int validBefore = indexedUpTo;
+        for (int i = validBefore; i < songs.size(); i++) {
+            String id = songs.get(i).getId();
+            Integer existing = positions.get(id);
+            if (existing == null || existing >= validBefore || !songs.get(existing).getId().equals(id)) { // Keep the first occurrence
+                positions.put(id, i);
+            }
+        }
+        indexedUpTo = songs.size();
+    }
+}
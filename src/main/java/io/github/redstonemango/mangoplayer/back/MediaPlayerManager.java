@@ -0,0 +1,107 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import javafx.beans.value.ChangeListener;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaException;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates and disposes all media players of the app, so their native decoders are released as soon as a player is no longer needed.<br>
+ * Listeners added through {@link #addCurrentTimeListener(MediaPlayer, ChangeListener)} are detached again on {@link #dispose(MediaPlayer)}.
+ * The live counts tell whether players leak over a long session.
+ */
+public class MediaPlayerManager {
+    private static final Map<MediaPlayer, List<ChangeListener<? super Duration>>> livePlayers = new IdentityHashMap<>();
+    private static long createdPlayers = 0;
+    private static long disposedPlayers = 0;
+    private static long createdMedia = 0;
+    private static long releasedMedia = 0;
+
+    /**
+     * @throws MediaException If the file cannot be opened as media
+     */
+    public static MediaPlayer create(File audioFile) {
+        Media media = new Media(audioFile.toURI().toString());
+        synchronized (MediaPlayerManager.class) {
+            createdMedia++;
+        }
+        MediaPlayer player;
+        try {
+            player = new MediaPlayer(media);
+        }
+        catch (MediaException e) {
+            release(null);
+            throw e;
+        }
+        synchronized (MediaPlayerManager.class) {
+            createdPlayers++;
+            livePlayers.put(player, new ArrayList<>());
+        }
+        return player;
+    }
+
+    public static void addCurrentTimeListener(MediaPlayer player, ChangeListener<? super Duration> listener) {
+        synchronized (MediaPlayerManager.class) {
+            List<ChangeListener<? super Duration>> listeners = livePlayers.get(player);
+            if (listeners == null) throw new IllegalStateException("Player was not created by the MediaPlayerManager or is already disposed");
+            listeners.add(listener);
+        }
+        player.currentTimeProperty().addListener(listener);
+    }
+
+    /**
+     * Detaches the player's listeners and handlers and frees its native resources. Disposing a player twice or {@code null} does nothing.
+     */
+    public static void dispose(@Nullable MediaPlayer player) {
+        if (player == null) return;
+        List<ChangeListener<? super Duration>> listeners;
+        synchronized (MediaPlayerManager.class) {
+            listeners = livePlayers.remove(player);
+        }
+        if (listeners == null) return;
+        listeners.forEach(player.currentTimeProperty()::removeListener);
+        player.setOnReady(null);
+        player.setOnPlaying(null);
+        player.setOnEndOfMedia(null);
+        player.stop();
+        player.dispose();
+        release(player);
+    }
+
+    private static synchronized void release(@Nullable MediaPlayer player) {
+        releasedMedia++;
+        if (player != null) disposedPlayers++;
+    }
+
+    public static synchronized long getCreatedPlayers() {
+        return createdPlayers;
+    }
+
+    public static synchronized long getDisposedPlayers() {
+        return disposedPlayers;
+    }
+
+    public static synchronized long getLivePlayers() {
+        return createdPlayers - disposedPlayers;
+    }
+
+    public static synchronized long getCreatedMedia() {
+        return createdMedia;
+    }
+
+    public static synchronized long getReleasedMedia() {
+        return releasedMedia;
+    }
+
+    public static synchronized long getLiveMedia() {
+        return createdMedia - releasedMedia;
+    }
+}
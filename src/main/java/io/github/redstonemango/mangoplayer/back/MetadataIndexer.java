@@ -0,0 +1,151 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import io.github.redstonemango.mangoplayer.back.config.AudioMetadataCache;
+import io.github.redstonemango.mangoplayer.back.config.SongConfigWrapper;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.util.Duration;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the audio header data of all songs in the background, so durations are known before the use analyser or a playlist's total duration asks for them.<br>
+ * A small pool of low-priority daemon threads works through a shared queue. Songs requested via {@link #request(Song)} are put at the front of that queue,
+ * so awaiting a single song does not have to wait for (or start) the full scan.
+ * While a song is playing, only one worker reads at a time and pauses between files to leave the disk to the playback.
+ */
+public class MetadataIndexer {
+    private static final int WORKER_COUNT = Math.clamp(Runtime.getRuntime().availableProcessors() / 2, 1, 4);
+    private static final long PLAYBACK_BACKOFF_MILLIS = 25;
+
+    private static final LinkedBlockingDeque<Song> queue = new LinkedBlockingDeque<>();
+    private static final Map<String, CompletableFuture<AudioMetadataCache.@Nullable AudioMetadata>> results = new ConcurrentHashMap<>();
+    private static final Object playbackGate = new Object();
+    private static final ReadOnlyStringWrapper status = new ReadOnlyStringWrapper("");
+    private static final Set<String> scanPending = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger scanned = new AtomicInteger(0);
+    private static final AtomicBoolean statusUpdateScheduled = new AtomicBoolean(false);
+    private static volatile int scanTotal = 0;
+    private static volatile long scanStartMillis = 0;
+    private static boolean workersStarted = false;
+    private static boolean scanStarted = false;
+
+    /**
+     * Queues all songs that have no valid cache entry yet. Calling this more than once has no effect.
+     */
+    public static synchronized void startScan() {
+        if (scanStarted) return;
+        scanStarted = true;
+        List<Song> pending = new ArrayList<>();
+        for (Song song : SongConfigWrapper.loadConfig().songs.values()) {
+            AudioMetadataCache.AudioMetadata cached = AudioMetadataCache.getIfCached(song);
+            if (cached != null) {
+                song.registerDurationIfNeeded(Duration.seconds(cached.durationSeconds()));
+                results.computeIfAbsent(song.getId(), _ -> new CompletableFuture<>()).complete(cached);
+            }
+            else {
+                pending.add(song);
+            }
+        }
+        System.out.println("Starting metadata scan of " + pending.size() + " songs on " + WORKER_COUNT + " threads (" + (SongConfigWrapper.loadConfig().songs.size() - pending.size()) + " already cached)");
+        if (pending.isEmpty()) return;
+        scanTotal = pending.size();
+        scanStartMillis = System.currentTimeMillis();
+        pending.forEach(song -> scanPending.add(song.getId()));
+        queue.addAll(pending);
+        ensureWorkersStarted();
+        scheduleStatusUpdate();
+    }
+
+    /**
+     * @return A future completed with the song's metadata ({@code null} if the file cannot be read). The song is read ahead of all songs queued by the scan
+     */
+    public static CompletableFuture<AudioMetadataCache.@Nullable AudioMetadata> request(Song song) {
+        CompletableFuture<AudioMetadataCache.@Nullable AudioMetadata> result = results.computeIfAbsent(song.getId(), _ -> new CompletableFuture<>());
+        if (!result.isDone()) {
+            queue.offerFirst(song);
+            ensureWorkersStarted();
+        }
+        return result;
+    }
+
+    /**
+     * @return The progress of the scan to be shown in a status area, or an empty string while no scan is running
+     */
+    public static ReadOnlyStringProperty statusProperty() {
+        return status.getReadOnlyProperty();
+    }
+
+    private static synchronized void ensureWorkersStarted() {
+        if (workersStarted) return;
+        workersStarted = true;
+        for (int i = 0; i < WORKER_COUNT; i++) {
+            Thread thread = new Thread(MetadataIndexer::work, "MangoPlayer-MetadataIndexer-" + i);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+        }
+    }
+
+    private static void work() {
+        while (true) {
+            Song song;
+            try {
+                song = queue.take();
+            } catch (InterruptedException _) {
+                return;
+            }
+            CompletableFuture<AudioMetadataCache.@Nullable AudioMetadata> result = results.computeIfAbsent(song.getId(), _ -> new CompletableFuture<>());
+            if (!result.isDone()) { // Requested songs are queued twice, the second occurrence is skipped here
+                try {
+                    result.complete(PlaylistAudioManager.isPlaying() ? readWhilePlaying(song) : read(song));
+                } catch (InterruptedException _) {
+                    return;
+                } catch (RuntimeException e) {
+                    System.err.println("Unable to read metadata of song '" + song.getId() + "': " + e);
+                    result.complete(null);
+                }
+                if (scanPending.remove(song.getId())) countScanned();
+            }
+        }
+    }
+
+    private static AudioMetadataCache.@Nullable AudioMetadata readWhilePlaying(Song song) throws InterruptedException {
+        synchronized (playbackGate) {
+            Thread.sleep(PLAYBACK_BACKOFF_MILLIS);
+            return read(song);
+        }
+    }
+
+    private static AudioMetadataCache.@Nullable AudioMetadata read(Song song) {
+        AudioMetadataCache.AudioMetadata metadata = AudioMetadataCache.get(song);
+        if (metadata != null) song.registerDurationIfNeeded(Duration.seconds(metadata.durationSeconds()));
+        return metadata;
+    }
+
+    private static void countScanned() {
+        if (scanned.incrementAndGet() == scanTotal) {
+            System.out.println("Finished metadata scan of " + scanTotal + " songs in " + (System.currentTimeMillis() - scanStartMillis) + "ms");
+        }
+        scheduleStatusUpdate();
+    }
+
+    private static void scheduleStatusUpdate() {
+        if (!statusUpdateScheduled.compareAndSet(false, true)) return; // Coalesce updates of many quickly read songs into one label change
+        Platform.runLater(() -> {
+            statusUpdateScheduled.set(false);
+            int done = Math.min(scanned.get(), scanTotal);
+            status.set(done >= scanTotal ? "" : "Reading song metadata... (" + done + "/" + scanTotal + ")");
+        });
+    }
+}
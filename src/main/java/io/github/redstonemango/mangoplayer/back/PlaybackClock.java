@@ -0,0 +1,127 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import io.github.redstonemango.mangoplayer.back.config.MainConfigWrapper;
+import javafx.animation.AnimationTimer;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Samples the playing song's position at most once per animation pulse and publishes it to all subscribed views.<br>
+ * The published {@link Snapshot} is the same object on every tick, so views must read it right away instead of keeping it.
+ * Ticks are limited to one per {@link MainConfigWrapper#playbackClockIntervalMillis} if set.
+ */
+public class PlaybackClock {
+    private static final long PAUSED_GRACE_NANOS = 500_000_000L; // Keeps sampling shortly after pausing or seeking while paused, until the player reported its new position
+
+    private static final Snapshot snapshot = new Snapshot();
+    private static final List<Subscriber> subscribers = new ArrayList<>();
+    private static @Nullable MediaPlayer player = null;
+    private static boolean running = false;
+    private static long lastTickNanos = 0;
+    private static long keepAliveUntilNanos = 0;
+    private static long intervalNanos = 0; // Read from the config when the clock starts, so ticks do not take the config's lock
+
+    private static final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            tick(now);
+        }
+    };
+
+    /**
+     * Only call on the FX thread.
+     */
+    public static void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public static void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Starts sampling the given player, or keeps sampling it for a moment after it was paused or seeked.
+     */
+    public static void start(MediaPlayer player) {
+        if (PlaybackClock.player != player) {
+            PlaybackClock.player = player;
+            snapshot.displayedSecond = -1;
+        }
+        keepAliveUntilNanos = System.nanoTime() + PAUSED_GRACE_NANOS;
+        if (!running) {
+            running = true;
+            lastTickNanos = 0;
+            intervalNanos = MainConfigWrapper.loadConfig().playbackClockIntervalMillis * 1_000_000L;
+            timer.start();
+        }
+    }
+
+    public static void stop() {
+        player = null;
+        running = false;
+        timer.stop();
+    }
+
+    private static void tick(long now) {
+        if (player == null) {
+            stop();
+            return;
+        }
+        if (now - lastTickNanos < intervalNanos) return;
+        lastTickNanos = now;
+
+        Duration currentTime = player.getCurrentTime(); // Returns the player's own instance, so sampling does not allocate
+        Duration totalDuration = player.getTotalDuration();
+        snapshot.currentSeconds = currentTime == null ? 0 : currentTime.toSeconds();
+        snapshot.totalSeconds = totalDuration == null || totalDuration.isUnknown() ? 0 : totalDuration.toSeconds();
+        long second = (long) snapshot.currentSeconds;
+        snapshot.secondChanged = second != snapshot.displayedSecond;
+        snapshot.displayedSecond = second;
+        for (int i = 0; i < subscribers.size(); i++) { // Indexed, so publishing does not create an iterator
+            subscribers.get(i).onTick(snapshot);
+        }
+
+        if (player.getStatus() != MediaPlayer.Status.PLAYING && System.nanoTime() > keepAliveUntilNanos) { // Nothing moves until the player is resumed or seeked again
+            running = false;
+            timer.stop();
+        }
+    }
+
+    public static final class Snapshot {
+        private double currentSeconds;
+        private double totalSeconds;
+        private long displayedSecond = -1;
+        private boolean secondChanged;
+
+        public double getCurrentSeconds() {
+            return currentSeconds;
+        }
+
+        public double getTotalSeconds() {
+            return totalSeconds;
+        }
+
+        /**
+         * @return The whole seconds of the current position
+         */
+        public long getDisplayedSecond() {
+            return displayedSecond;
+        }
+
+        /**
+         * @return Whether {@link #getDisplayedSecond()} differs from the previous tick, meaning time labels have to be updated
+         */
+        public boolean hasSecondChanged() {
+            return secondChanged;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Subscriber {
+        void onTick(Snapshot snapshot);
+    }
+}
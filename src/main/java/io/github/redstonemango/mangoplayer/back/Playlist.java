@@ -1,26 +1,32 @@
 package io.github.redstonemango.mangoplayer.back;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
-import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.TextInputDialog;
 import javafx.util.Duration;
+import io.github.redstonemango.mangoplayer.back.config.AudioMetadataCache;
 import io.github.redstonemango.mangoplayer.back.config.PlaylistConfigWrapper;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class Playlist implements Comparable<Playlist> {
     @Expose private String id;
     @Expose private String name;
-    @Expose @SerializedName("songs") private Set<String> songIds;
+    @Expose @SerializedName("songs") private volatile Set<String> songIds;
     @Expose private long playedSongCount;
     @Expose private long secondsPlayed;
-    private ObservableList<Song> songObjects;
+    private @Nullable IndexedSongList songObjects; // Built lazily by #getSongs()
+    private boolean songIdsCaptured = false; // Whether a save or another thread may still read the current ID set, so the next change has to copy it first
 
 
 
@@ -32,10 +38,22 @@ public class Playlist implements Comparable<Playlist> {
         this.secondsPlayed = secondsPlayed;
     }
 
+    /**
+     * Restores an already known playlist (e.g. from a binary snapshot) without generating a new ID.
+     */
+    public Playlist(String id, String name, Set<String> songIds, long playedSongCount, long secondsPlayed) {
+        this.id = id;
+        this.name = name;
+        this.songIds = songIds;
+        this.playedSongCount = playedSongCount;
+        this.secondsPlayed = secondsPlayed;
+    }
+
     public void ensureFields() {
         if (id == null || id.isBlank()) {
             id = UniqueIdGenerator.generateUniqueString(UniqueIdGenerator.IdUse.PLAYLIST_ID);
             System.err.println("Found a playlist without ID!" + (name != null && !name.isBlank() ? " (Name is '" + name + "')." : "") + " Initialized ID to newly generated value '" + id + "'");
+            PlaylistConfigWrapper.markDirty(); // The generated ID needs to be persisted, as journal records reference it
         }
         if (name == null || name.isBlank()) {
             name = "Unnamed Playlist";
@@ -45,43 +63,177 @@ public class Playlist implements Comparable<Playlist> {
             songIds = new HashSet<>();
         }
         songIds.removeIf(Objects::isNull);
+        songIds.removeIf(id -> Song.songFromId(id) == null); // Plain map lookups. The song list itself is only built once it is needed (see #getSongs())
+    }
 
-        List<Song> songsObjs = new ArrayList<>();
-        songObjects = FXCollections.observableList(songsObjs);
-        songIds.removeIf(id -> Song.songFromId(id) == null);
+    private void materializeSongs() {
+        List<Song> songsObjs = new ArrayList<>(songIds.size());
         songIds.forEach(id -> songsObjs.add(Song.songFromId(id)));
-        songObjects.removeIf(Objects::isNull); // Just to be sure. Actually, all 'null' songs should already have been removed
-        songObjects.addListener((ListChangeListener<Song>) change -> {
+        songsObjs.removeIf(Objects::isNull); // Just to be sure. Actually, all 'null' songs should already have been removed
+        IndexedSongList songList = new IndexedSongList(songsObjs);
+        songList.addListener((ListChangeListener<Song>) change -> {
+            List<Song> added = new ArrayList<>();
+            List<Song> removed = new ArrayList<>();
             while (change.next()) {
-                if (change.wasAdded()) {
-                    change.getAddedSubList().forEach(song -> songIds.add(song.getId()));
-                }
-                if (change.wasRemoved()) {
-                    change.getRemoved().forEach(song -> songIds.remove(song.getId()));
+                if (change.wasRemoved()) removed.addAll(change.getRemoved());
+                if (change.wasAdded()) added.addAll(change.getAddedSubList());
+            }
+            Set<String> addedIds = new HashSet<>();
+            added.forEach(song -> addedIds.add(song.getId()));
+            Set<String> removedIds = new HashSet<>();
+            removed.forEach(song -> removedIds.add(song.getId()));
+
+            List<String> removedOnly = new ArrayList<>();
+            for (Song song : removed) {
+                if (!addedIds.contains(song.getId())) removedOnly.add(song.getId()); // Otherwise moved within the playlist, handled below
+            }
+            List<String> addedOnly = new ArrayList<>();
+            List<Song> moved = new ArrayList<>();
+            for (Song song : added) {
+                if (removedIds.contains(song.getId())) moved.add(song);
+                else addedOnly.add(song.getId());
+            }
+
+            synchronized (this) {
+                ensureSongIdsWritable();
+                removedOnly.forEach(songIds::remove);
+                songIds.addAll(addedOnly);
+                if (!moved.isEmpty()) { // The set only appends, so the order has to be taken from the list
+                    Set<String> reorderedIds = new LinkedHashSet<>(songIds.size() * 4 / 3 + 1);
+                    for (Song song : songList) reorderedIds.add(song.getId());
+                    songIds = reorderedIds;
                 }
             }
+            // Outside the lock, as building the usage index captures the ID sets while holding the index's lock
+            for (String songId : removedOnly) {
+                SongUsageIndex.songRemoved(songId, this);
+                PlaylistConfigWrapper.record(id, "songRemoved", new JsonPrimitive(songId));
+            }
+            for (String songId : addedOnly) {
+                SongUsageIndex.songAdded(songId, this);
+                PlaylistConfigWrapper.record(id, "songAdded", new JsonPrimitive(songId));
+            }
+            for (Song song : moved) {
+                JsonObject move = new JsonObject();
+                move.addProperty("song", song.getId());
+                move.addProperty("index", songList.indexOf(song));
+                PlaylistConfigWrapper.record(id, "songMoved", move);
+            }
         });
+        songObjects = songList;
     }
 
-    public Duration computeTotalDuration() {
-        Duration duration = Duration.ZERO;
-        for (Song song : songObjects) {
-            Duration dur = song.loadDuration();
-            if (dur != null) duration = duration.add(dur);
+    /**
+     * Requests the durations of all songs from the {@link MetadataIndexer}, ahead of its background scan.
+     * @return A future completed with the sum of all readable song durations once every song was read
+     */
+    public CompletableFuture<Duration> requestTotalDuration() {
+        Set<String> ids = captureSongIds(); // Called off the FX thread by the use analyser
+        List<CompletableFuture<AudioMetadataCache.@Nullable AudioMetadata>> requests = new ArrayList<>(ids.size());
+        for (String songId : ids) { // Plain map lookups, so summing up does not build the song list
+            Song song = Song.songFromId(songId);
+            if (song != null) requests.add(MetadataIndexer.request(song));
         }
-        return duration;
+        return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).thenApply(_ -> {
+            Duration duration = Duration.ZERO;
+            for (CompletableFuture<AudioMetadataCache.@Nullable AudioMetadata> request : requests) {
+                AudioMetadataCache.AudioMetadata metadata = request.join();
+                if (metadata != null) duration = duration.add(Duration.seconds(metadata.durationSeconds()));
+            }
+            return duration;
+        });
+    }
+
+    /**
+     * Builds the observable song list on first access, so playlists that are never opened during a session only keep their ID set.
+     * Use {@link #getSongCount()} and {@link #getFirstSongId()} where a summary is sufficient.
+     */
+    public ObservableList<Song> getSongs() {
+        return getSongList();
+    }
+
+    /**
+     * Moves a song within this playlist, e.g. after it was dragged to another position.
+     * @param toIndex The position of the song after the move
+     */
+    public void moveSong(int fromIndex, int toIndex) {
+        getSongList().move(fromIndex, toIndex); // Not holding the lock, see the song list's listener
     }
 
-    public List<Song> getSongs() {
+    private synchronized IndexedSongList getSongList() {
+        if (songObjects == null) {
+            materializeSongs();
+        }
         return songObjects;
     }
 
+    public int getSongCount() {
+        return songIds.size();
+    }
+
+    public synchronized @Nullable String getFirstSongId() {
+        if (songObjects != null) {
+            return songObjects.isEmpty() ? null : songObjects.getFirst().getId();
+        }
+        Set<String> ids = songIds;
+        return ids.isEmpty() ? null : ids.iterator().next();
+    }
+
+    /**
+     * Removes a song from this playlist without building its song list if that did not happen yet.
+     */
+    public void removeSong(Song song) {
+        IndexedSongList songList;
+        synchronized (this) {
+            songList = songObjects;
+            if (songList == null) {
+                if (!songIds.contains(song.getId())) return;
+                ensureSongIdsWritable();
+                songIds.remove(song.getId());
+            }
+        }
+        if (songList != null) {
+            songList.remove(song); // The list's listener updates the IDs
+            return;
+        }
+        SongUsageIndex.songRemoved(song.getId(), this);
+        PlaylistConfigWrapper.record(id, "songRemoved", new JsonPrimitive(song.getId()));
+    }
+
+    public Set<String> getSongIds() {
+        return Collections.unmodifiableSet(songIds);
+    }
+
+    /**
+     * Hands out the current song ID set for reading on any thread, e.g. for serializing it. Runs in O(1): The set is not copied here, but by the next change.
+     * @return The song ID set, which is never modified afterward
+     */
+    public synchronized Set<String> captureSongIds() {
+        songIdsCaptured = true;
+        return Collections.unmodifiableSet(songIds);
+    }
+
+    /**
+     * @return A copy of all persisted fields for writing a snapshot. It shares the {@linkplain #captureSongIds() captured} song ID set, so this runs in O(1)
+     */
+    public synchronized Playlist captureForSnapshot() {
+        songIdsCaptured = true;
+        return new Playlist(id, name, songIds, playedSongCount, secondsPlayed);
+    }
+
+    private void ensureSongIdsWritable() {
+        if (!songIdsCaptured) return; // Nobody else holds the set, so it can be changed in place. This keeps adding a song at O(1)
+        songIds = new LinkedHashSet<>(songIds);
+        songIdsCaptured = false;
+    }
+
     public String getName() {
         return name;
     }
 
     public void setName(String name) {
         this.name = name;
+        PlaylistConfigWrapper.record(id, "name", new JsonPrimitive(name));
     }
 
     public String getId() {
@@ -98,10 +250,67 @@ public class Playlist implements Comparable<Playlist> {
 
     public void increasePlayedSongCount() {
         playedSongCount++;
+        PlaylistConfigWrapper.record(id, "playedSongCount", new JsonPrimitive(playedSongCount));
     }
 
     public void increasePlayTime(Duration duration) {
-        secondsPlayed += (long) duration.toSeconds();
+        long seconds = (long) duration.toSeconds();
+        if (seconds == 0) return;
+        secondsPlayed += seconds;
+        PlaylistConfigWrapper.record(id, "secondsPlayed", new JsonPrimitive(secondsPlayed));
+    }
+
+    /**
+     * Re-applies a change that was recorded in the playlist journal. Values are absolute, so applying a record twice is harmless.
+     */
+    public void applyJournalRecord(String op, JsonElement value) {
+        switch (op) {
+            case "name" -> name = value.getAsString();
+            case "playedSongCount" -> playedSongCount = value.getAsLong();
+            case "secondsPlayed" -> secondsPlayed = value.getAsLong();
+            case "songAdded" -> {
+                String songId = value.getAsString();
+                if (Song.songFromId(songId) == null || songIds.contains(songId)) return;
+                if (songObjects != null) {
+                    songObjects.add(Song.songFromId(songId));
+                }
+                else {
+                    synchronized (this) {
+                        ensureSongIdsWritable();
+                        songIds.add(songId);
+                    }
+                    SongUsageIndex.songAdded(songId, this);
+                }
+            }
+            case "songRemoved" -> {
+                String songId = value.getAsString();
+                if (songObjects != null) {
+                    songObjects.removeIf(song -> song.getId().equals(songId));
+                }
+                else {
+                    synchronized (this) {
+                        ensureSongIdsWritable();
+                        songIds.remove(songId);
+                    }
+                    SongUsageIndex.songRemoved(songId, this);
+                }
+            }
+            case "songMoved" -> {
+                String songId = value.getAsJsonObject().get("song").getAsString();
+                int index = value.getAsJsonObject().get("index").getAsInt();
+                if (songObjects != null) {
+                    int currentIndex = songObjects.indexOf(Song.songFromId(songId));
+                    if (currentIndex >= 0) songObjects.move(currentIndex, Math.min(index, songObjects.size() - 1));
+                }
+                else if (songIds.contains(songId)) {
+                    List<String> orderedIds = new ArrayList<>(songIds);
+                    orderedIds.remove(songId);
+                    orderedIds.add(Math.min(index, orderedIds.size()), songId);
+                    songIds = new LinkedHashSet<>(orderedIds);
+                }
+            }
+            default -> System.err.println("Skipping unknown playlist journal record '" + op + "' for playlist '" + id + "'");
+        }
     }
 
     @Override
@@ -116,6 +325,11 @@ public class Playlist implements Comparable<Playlist> {
         return other.getId().equals(getId());
     }
 
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
     public boolean askAndRunDelete() {
         if (!songIds.isEmpty()) {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
@@ -129,7 +343,7 @@ public class Playlist implements Comparable<Playlist> {
             }
         }
 
-        PlaylistConfigWrapper.loadConfig().playlists.remove(this);
+        PlaylistConfigWrapper.loadConfig().removePlaylist(this);
         System.out.println("Deleting playlist '" + name + "' (ID was '" + id + "')");
         return true;
     }
@@ -143,7 +357,7 @@ public class Playlist implements Comparable<Playlist> {
         dialog.showAndWait();
         if (dialog.getResult() != null) {
             System.out.println("Renaming playlist '" + name + "' to '" + dialog.getResult() + "' (ID is '" + id + "')");
-            name = dialog.getResult();
+            setName(dialog.getResult());
         }
     }
 }
@@ -1,5 +1,7 @@
 package io.github.redstonemango.mangoplayer.back;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaException;
@@ -10,18 +12,29 @@ import io.github.redstonemango.mangoplayer.back.config.MainConfigWrapper;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 
 public class PlaylistAudioManager {
-    private static @Nullable Media currentMedia;
+    private static final Duration PREPARE_AHEAD = Duration.seconds(5);
+
     private static @Nullable MediaPlayer currentPlayer;
     private static @Nullable Song currentlyPlayingSong = null;
     private static @Nullable PlaylistScreenController controller;
 
-    private static final List<Song> songQueue = new ArrayList<>();
-    private static int songQueuePosition = 0;
+    private static final SongQueue songQueue = new SongQueue();
+
+    // The player of the song expected to play next, built and pre-rolled shortly before the current song ends. Only used if that song actually comes next
+    private static @Nullable Song preparedSong = null;
+    private static @Nullable MediaPlayer preparedPlayer = null;
+    private static long endOfMediaNanos = 0;
+
+    // The player fading out during a crossfade. Together with the current player, never more than two players are alive, as nothing is prepared while fading
+    private static @Nullable MediaPlayer fadingPlayer = null;
+    private static @Nullable Song fadingSong = null;
+    private static long fadeStartNanos = 0;
+    private static final Timeline fadeTimeline = new Timeline(new KeyFrame(Duration.millis(40), _ -> updateFade()));
+    static {
+        fadeTimeline.setCycleCount(Timeline.INDEFINITE);
+    }
 
     public static void registerController(PlaylistScreenController controller) {
         PlaylistAudioManager.controller = controller;
@@ -30,12 +43,16 @@ public class PlaylistAudioManager {
     // Starts playlist play (first song in queue)
     public static void startPlay() {
         if (controller == null) throw new IllegalStateException("No controller registered");
+        endOfMediaNanos = 0; // Started by the user, so there is no gap to measure
+        finishCrossfade();
         initializeSongQueue(null);
-        playCurrentSongSafely(true);
+        playSafely(songQueue.current(), true);
     }
 
     // Plays specific song
     public static void play(Song song) {
+        endOfMediaNanos = 0;
+        finishCrossfade();
         play(song, false, true);
     }
     private static void play(Song song, boolean jumpTo, boolean initializeQueue) {
@@ -44,9 +61,12 @@ public class PlaylistAudioManager {
         File audioFile = new File(Utilities.audioPathFromSong(song));
         if (currentPlayer != null) {
             controller.onSongEnd(currentlyPlayingSong, true);
-            currentPlayer.stop();
+            MediaPlayerManager.dispose(currentPlayer);
+            currentPlayer = null;
+            PlaybackClock.stop();
         }
         if (!audioFile.exists()) {
+            discardPreparedPlayer();
             Utilities.showErrorScreen("Play '" + song.getName() + "'", "The audio asset for the song could not be found.\nPlease try re-downloading/importing the song");
             currentlyPlayingSong = null;
             controller.onPlayEnd();
@@ -58,32 +78,65 @@ public class PlaylistAudioManager {
         }
 
         currentlyPlayingSong = song;
-        try {
-            currentMedia = new Media(audioFile.toURI().toString());
-            currentPlayer = new MediaPlayer(currentMedia);
+        boolean prepared = preparedPlayer != null && song.equals(preparedSong);
+        if (prepared) {
+            currentPlayer = preparedPlayer;
+            preparedSong = null;
+            preparedPlayer = null;
         }
-        catch (MediaException e) {
-            System.err.println("Media error while instantiating audio playback objects for playlist: " + e);
-            if (e.getType() == MediaException.Type.UNKNOWN) {
-                Utilities.showCodecErrorMessage();
+        else {
+            discardPreparedPlayer();
+            try {
+                currentPlayer = MediaPlayerManager.create(audioFile);
+            }
+            catch (MediaException e) {
+                System.err.println("Media error while instantiating audio playback objects for playlist: " + e);
+                if (e.getType() == MediaException.Type.UNKNOWN) {
+                    Utilities.showCodecErrorMessage();
+                }
+                currentlyPlayingSong = null;
+                currentPlayer = null;
+                controller.onPlayEnd();
+                return;
             }
-            currentlyPlayingSong = null;
-            currentPlayer = null;
-            currentMedia = null;
-            controller.onPlayEnd();
-            return;
         }
+        MediaPlayer player = currentPlayer;
+        Media media = player.getMedia();
         updateVolume();
 
-        currentPlayer.setOnReady(() -> {
-            currentPlayer.play();
-            song.registerDurationIfNeeded(currentMedia.getDuration()); // Lazy-load to simplify tag read for analyzer
-            controller.onNewSongStart(song, currentMedia.getDuration(), jumpTo);
+        player.setOnPlaying(() -> {
+            if (endOfMediaNanos == 0) return; // Resumed after a pause or started by the user
+            System.out.println("Gap between songs was " + (System.nanoTime() - endOfMediaNanos) / 1_000_000 + "ms (" + (prepared ? "prepared ahead" : "not prepared") + ")");
+            endOfMediaNanos = 0;
         });
+        Runnable start = () -> {
+            player.play();
+            PlaybackClock.start(player);
+            song.registerDurationIfNeeded(media.getDuration()); // Lazy-load to simplify tag read for analyzer
+            controller.onNewSongStart(song, media.getDuration(), jumpTo);
+        };
+        if (player.getStatus() == MediaPlayer.Status.READY) {
+            start.run(); // Pre-rolled while the previous song was still playing
+        }
+        else {
+            player.setOnReady(start);
+        }
 
-        currentPlayer.currentTimeProperty().addListener((_, _, newValue) -> controller.onProgressUpdate(newValue));
+        MediaPlayerManager.addCurrentTimeListener(player, (_, _, newValue) -> {
+            if (player != currentPlayer) return; // Fading out or already replaced. The views are updated by the PlaybackClock
+            double remainingSeconds = player.getTotalDuration().toSeconds() - newValue.toSeconds();
+            double crossfadeSeconds = MainConfigWrapper.loadConfig().crossfadeSeconds;
+            if (preparedPlayer == null && fadingPlayer == null && remainingSeconds <= PREPARE_AHEAD.toSeconds() + crossfadeSeconds) {
+                prepareNextSong();
+            }
+            else if (crossfadeSeconds > 0 && fadingPlayer == null && preparedPlayer != null && preparedPlayer.getStatus() == MediaPlayer.Status.READY && remainingSeconds <= crossfadeSeconds
+                    && preparedSong.equals(peekNextSong())) { // Otherwise, playback stops after this song (or the queue changed), so it plays to its natural end
+                startCrossfade(song);
+            }
+        });
 
-        currentPlayer.setOnEndOfMedia(() -> {
+        player.setOnEndOfMedia(() -> {
+            endOfMediaNanos = System.nanoTime();
             controller.onSongEnd(song, false);
             currentlyPlayingSong = null;
 
@@ -91,11 +144,100 @@ public class PlaylistAudioManager {
         });
     }
 
-    private static void playCurrentSongSafely(boolean jumpTo) {
+    /**
+     * Hands the current player over to fade out and starts the prepared next song, which fades in over the configured crossfade duration.
+     * The song counts as played, as if it had ended.
+     */
+    private static void startCrossfade(Song song) {
         if (controller == null) throw new IllegalStateException("No controller registered");
+        MediaPlayer outgoing = currentPlayer;
+        fadingPlayer = outgoing;
+        fadingSong = song;
+        fadeStartNanos = System.nanoTime();
+        outgoing.setOnEndOfMedia(PlaylistAudioManager::finishCrossfade);
+        currentPlayer = null; // So starting the next song does not stop the outgoing one
+        controller.onSongEnd(song, false);
+        currentlyPlayingSong = null;
+
+        moveQueueForward(true);
+        if (currentPlayer == null) { // The next song could not be started
+            finishCrossfade();
+            return;
+        }
+        updateVolume();
+        fadeTimeline.play();
+    }
 
-        if (songQueuePosition < songQueue.size() && songQueuePosition >= 0) {
-            play(songQueue.get(songQueuePosition), jumpTo, false);
+    private static void updateFade() {
+        if (fadingPlayer == null) return;
+        if (fadeProgress() >= 1) {
+            finishCrossfade();
+        }
+        else {
+            updateVolume();
+        }
+    }
+
+    /**
+     * Disposes the fading player right away, e.g. when the fade completed or the user intervenes, and restores the full volume of the current player.
+     */
+    private static void finishCrossfade() {
+        if (fadingPlayer == null) return;
+        fadeTimeline.stop();
+        MediaPlayerManager.dispose(fadingPlayer);
+        fadingPlayer = null;
+        fadingSong = null;
+        updateVolume();
+    }
+
+    /**
+     * @return How far the crossfade has proceeded from 0 (only the outgoing song is audible) to 1 (only the current song is audible)
+     */
+    private static double fadeProgress() {
+        if (fadingPlayer == null) return 1;
+        double crossfadeNanos = MainConfigWrapper.loadConfig().crossfadeSeconds * 1_000_000_000;
+        return crossfadeNanos <= 0 ? 1 : Math.min(1, (System.nanoTime() - fadeStartNanos) / crossfadeNanos);
+    }
+
+    /**
+     * Builds the player of the song that will play after the current one ends, so it only has to be started then.
+     */
+    private static void prepareNextSong() {
+        Song nextSong = peekNextSong();
+        if (nextSong == null) return;
+        File audioFile = new File(Utilities.audioPathFromSong(nextSong));
+        if (!audioFile.exists()) return; // Reported once the song is actually played
+        try {
+            preparedPlayer = MediaPlayerManager.create(audioFile);
+            preparedSong = nextSong;
+        }
+        catch (MediaException e) {
+            System.err.println("Unable to prepare playback of song '" + nextSong.getId() + "': " + e);
+            discardPreparedPlayer();
+        }
+    }
+
+    private static void discardPreparedPlayer() {
+        MediaPlayerManager.dispose(preparedPlayer);
+        preparedPlayer = null;
+        preparedSong = null;
+    }
+
+    /**
+     * @return The song {@link #songQueueForward(boolean)} will play when the current song ends, or {@code null} if playback will end then
+     */
+    private static @Nullable Song peekNextSong() {
+        if (controller == null || controller.shouldStopAfterSong()) return null;
+        int loopType = MainConfigWrapper.loadConfig().loopType;
+        if (loopType == MainConfigWrapper.LOOP_TYPE_SINGLE) return songQueue.current();
+        return songQueue.peekNext(loopType == MainConfigWrapper.LOOP_TYPE_ALL); // Peeking draws the next shuffled song already, so the prepared song is the one that plays
+    }
+
+    private static void playSafely(@Nullable Song song, boolean jumpTo) {
+        if (controller == null) throw new IllegalStateException("No controller registered");
+
+        if (song != null && !controller.shouldStopAfterSong()) {
+            play(song, jumpTo, false);
         }
         else {
             stop();
@@ -105,46 +247,39 @@ public class PlaylistAudioManager {
     public static boolean cannotMoveForwardInQueue() {
         if (!isInitialized()) return true;
         if (MainConfigWrapper.loadConfig().loopType == MainConfigWrapper.LOOP_TYPE_ALL || MainConfigWrapper.loadConfig().loopType == MainConfigWrapper.LOOP_TYPE_SINGLE) return false;
-        return songQueuePosition >= songQueue.size() - 1;
+        return !songQueue.hasNext();
     }
 
     public static boolean cannotMoveBackwardInQueue() {
         if (!isInitialized()) return true;
         if (MainConfigWrapper.loadConfig().loopType == MainConfigWrapper.LOOP_TYPE_ALL || MainConfigWrapper.loadConfig().loopType == MainConfigWrapper.LOOP_TYPE_SINGLE) return false;
-        return songQueuePosition <= 0;
+        return !songQueue.hasPrevious();
     }
 
     public static void songQueueForward(boolean jumpTo) {
+        finishCrossfade();
+        moveQueueForward(jumpTo);
+    }
+
+    private static void moveQueueForward(boolean jumpTo) {
         if (controller == null) throw new IllegalStateException("No controller registered");
 
-        if (MainConfigWrapper.loadConfig().loopType != MainConfigWrapper.LOOP_TYPE_SINGLE) { // If we are looping single, do not change the current queue position
-            songQueuePosition++;
-            if (MainConfigWrapper.loadConfig().loopType == MainConfigWrapper.LOOP_TYPE_ALL && songQueuePosition >= songQueue.size()) {
-                songQueuePosition = 0;
-                if (MainConfigWrapper.loadConfig().isShuffleActive) { // If we have shuffle active and the playlist loops itself, re-shuffle the list when doing so
-                    Song notThisSong = Utilities.getRandomElementExcluding(controller.playlist.getSongs(), songQueue.getLast());
-                    initializeSongQueue(notThisSong); // Configure the new queue to start with a song that definitely is not the lastly played song. This avoids the edge case of one song playing 2 times in a row if the user has bad luck
-                }
-            }
-        }
-        if (controller.shouldStopAfterSong()) songQueuePosition = -1;
-        playCurrentSongSafely(jumpTo);
+        int loopType = MainConfigWrapper.loadConfig().loopType;
+        Song next = loopType == MainConfigWrapper.LOOP_TYPE_SINGLE ? songQueue.current() : songQueue.advance(loopType == MainConfigWrapper.LOOP_TYPE_ALL); // When looping all, a shuffled queue starts a new round without repeating the last song
+        playSafely(next, jumpTo);
     }
 
     public static void songQueueBackwards(boolean jumpTo) {
         if (controller == null) throw new IllegalStateException("No controller registered");
+        finishCrossfade();
 
-        if (MainConfigWrapper.loadConfig().loopType != MainConfigWrapper.LOOP_TYPE_SINGLE) { // If we are looping single, do not change the current queue position
-            songQueuePosition--;
-            if (MainConfigWrapper.loadConfig().loopType == MainConfigWrapper.LOOP_TYPE_ALL && songQueuePosition < 0) {
-                songQueuePosition = songQueue.size() - 1;
-            }
-        }
-        if (controller.shouldStopAfterSong()) songQueuePosition = -1;
-        playCurrentSongSafely(jumpTo);
+        int loopType = MainConfigWrapper.loadConfig().loopType;
+        Song previous = loopType == MainConfigWrapper.LOOP_TYPE_SINGLE ? songQueue.current() : songQueue.retreat(loopType == MainConfigWrapper.LOOP_TYPE_ALL);
+        playSafely(previous, jumpTo);
     }
 
     public static void pauseOrResume() {
+        finishCrossfade();
         if (currentPlayer != null) {
             if (currentPlayer.getStatus() == MediaPlayer.Status.PAUSED) {
                 currentPlayer.play();
@@ -152,26 +287,38 @@ public class PlaylistAudioManager {
             else {
                 currentPlayer.pause();
             }
+            PlaybackClock.start(currentPlayer); // Samples the final position after pausing
         }
     }
 
     public static void seek(Duration duration, boolean isPausing) {
+        finishCrossfade();
         if (currentPlayer != null) {
             currentPlayer.seek(duration);
             if (!isPausing) currentPlayer.play();
+            PlaybackClock.start(currentPlayer);
         }
     }
 
     public static void stop() {
         if (controller == null) throw new IllegalStateException("No controller registered");
 
+        discardPreparedPlayer();
+        endOfMediaNanos = 0; // The next play is started by the user and must not be logged as a gap after the last song
+        boolean wasFading = fadingPlayer != null;
+        finishCrossfade();
         if (currentPlayer != null) {
-            currentPlayer.stop();
+            MediaPlayerManager.dispose(currentPlayer);
             currentPlayer = null;
             currentlyPlayingSong = null;
+            PlaybackClock.stop();
             controller.onSongEnd(currentlyPlayingSong, true);
             Platform.runLater(controller::onPlayEnd); // Delay play end a bit to give the player time to stop. Without this, the time label would, for example, show a wrong time
         }
+        else if (wasFading) { // The next song of a crossfade did not start, so the fading player was the last one playing
+            PlaybackClock.stop();
+            Platform.runLater(controller::onPlayEnd);
+        }
     }
     public static boolean isInitialized() {
         return currentPlayer != null;
@@ -181,9 +328,17 @@ public class PlaylistAudioManager {
     }
 
     public static void updateVolume() {
+        double progress = fadeProgress();
         if (currentPlayer != null && currentlyPlayingSong != null) {
-            currentPlayer.setVolume(MainConfigWrapper.loadConfig().isMuted ? 0 : MainConfigWrapper.loadConfig().volume * currentlyPlayingSong.getVolumeAdjustment());
+            currentPlayer.setVolume(songVolume(currentlyPlayingSong) * progress);
         }
+        if (fadingPlayer != null && fadingSong != null) {
+            fadingPlayer.setVolume(songVolume(fadingSong) * (1 - progress));
+        }
+    }
+
+    private static double songVolume(Song song) {
+        return MainConfigWrapper.loadConfig().isMuted ? 0 : MainConfigWrapper.loadConfig().volume * song.getVolumeAdjustment();
     }
 
     public static boolean isPaused() {
@@ -207,21 +362,7 @@ public class PlaylistAudioManager {
     public static void initializeSongQueue(@Nullable Song firstSong) {
         if (controller == null) throw new IllegalStateException("No controller registered");
 
-        songQueue.clear();
-        songQueue.addAll(controller.playlist.getSongs());
-        songQueuePosition = 0;
-        if (MainConfigWrapper.loadConfig().isShuffleActive) {
-            Collections.shuffle(songQueue);
-        }
-        if (firstSong != null) {
-            int firstSongIndex = songQueue.indexOf(firstSong);
-            if (MainConfigWrapper.loadConfig().isShuffleActive) {
-                songQueue.remove(firstSong);
-                songQueue.addFirst(firstSong);
-            }
-            else {
-                songQueuePosition = firstSongIndex == -1 ? 0 : firstSongIndex;
-            }
-        }
+        songQueue.reset(controller.playlist.getSongs(), MainConfigWrapper.loadConfig().isShuffleActive, firstSong);
+        discardPreparedPlayer(); // Prepared for the order of the previous queue
     }
 }
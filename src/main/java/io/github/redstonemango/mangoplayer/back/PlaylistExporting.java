@@ -113,11 +113,13 @@ public class PlaylistExporting {
             ExecutorService service = Executors.newSingleThreadExecutor();
             service.execute(() -> {
                 List<String> songs = new ArrayList<>();
+                AtomicInteger songIndex = new AtomicInteger(0);
 
                 playlist.getSongs().forEach(song -> {
                     String songname = Utilities.formatAsFriendlyText(song.getName()) + ".mp3";
+                    int position = songIndex.incrementAndGet(); // The songs are visited in order, so there is no need to look up each one's position
                     if (orderType.numeric()) {
-                        StringBuilder songNumber = new StringBuilder(String.valueOf(playlist.getSongs().indexOf(song) + 1));
+                        StringBuilder songNumber = new StringBuilder(String.valueOf(position));
                         while (songNumber.length() < latestSongNumberLength.get()) {
                             songNumber.insert(0, "0");
                         }
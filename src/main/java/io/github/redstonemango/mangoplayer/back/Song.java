@@ -1,36 +1,30 @@
 package io.github.redstonemango.mangoplayer.back;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
 import com.google.gson.annotations.Expose;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
-import io.github.redstonemango.mangoplayer.back.config.PlaylistConfigWrapper;
+import io.github.redstonemango.mangoplayer.back.config.AudioMetadataCache;
 import io.github.redstonemango.mangoplayer.back.config.SongConfigWrapper;
 import javafx.util.Duration;
-import org.jaudiotagger.audio.AudioFile;
-import org.jaudiotagger.audio.AudioFileIO;
-import org.jaudiotagger.audio.exceptions.CannotReadException;
-import org.jaudiotagger.audio.exceptions.InvalidAudioFrameException;
-import org.jaudiotagger.audio.exceptions.ReadOnlyFileException;
 import org.jaudiotagger.audio.mp3.MP3File;
 import org.jaudiotagger.tag.FieldKey;
 import org.jaudiotagger.tag.Tag;
-import org.jaudiotagger.tag.TagException;
 import org.jaudiotagger.tag.id3.ID3v24Tag;
 import org.jaudiotagger.tag.images.StandardArtwork;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.IOException;
 import java.io.Serializable;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class Song implements Comparable<Song>, Serializable {
     @Expose private String name;
     private String id;
-    private @Nullable Duration duration;
+    private volatile @Nullable Duration duration; // Also filled by the MetadataIndexer threads
     @Expose private final @Nullable String youtubeId;
     @Expose private long listenCount;
     @Expose private double volumeAdjustment;
@@ -42,6 +36,17 @@ public class Song implements Comparable<Song>, Serializable {
         this.volumeAdjustment = Math.clamp(volumeAdjustment, 0.01, 1);
     }
 
+    /**
+     * Restores an already known song (e.g. from a binary snapshot) without generating a new ID.
+     */
+    public Song(String id, String name, @Nullable String youtubeId, long listenCount, double volumeAdjustment) {
+        this.id = id;
+        this.name = name;
+        this.listenCount = listenCount;
+        this.youtubeId = youtubeId;
+        this.volumeAdjustment = volumeAdjustment;
+    }
+
     public void ensureFields(String requiredId) {
         id = requiredId;
 
@@ -56,12 +61,9 @@ public class Song implements Comparable<Song>, Serializable {
     // === Lazy-Load Duration Value To Simplify Tag-Read For Analyzer === //
     public @Nullable Duration loadDuration() {
         if (duration == null) {
-            try {
-                AudioFile af = AudioFileIO.read(new File(Utilities.audioPathFromSong(this)));
-                duration = Duration.seconds(af.getAudioHeader().getTrackLength());
-            } catch (CannotReadException | IOException | TagException | ReadOnlyFileException | InvalidAudioFrameException _) {
-                return null;
-            }
+            AudioMetadataCache.AudioMetadata metadata = AudioMetadataCache.get(this); // Only opens the file if it is not cached yet or changed since
+            if (metadata == null) return null;
+            duration = Duration.seconds(metadata.durationSeconds());
         }
         return duration;
     }
@@ -76,7 +78,10 @@ public class Song implements Comparable<Song>, Serializable {
     }
 
     public void setName(String name) {
+        if (name.equals(this.name)) return;
         this.name = name;
+        SongSearchIndex.songPut(this);
+        SongConfigWrapper.record(id, "name", new JsonPrimitive(name));
     }
 
     public String getId() {
@@ -89,6 +94,7 @@ public class Song implements Comparable<Song>, Serializable {
 
     public void increaseListenCount() {
         listenCount++;
+        SongConfigWrapper.record(id, "listenCount", new JsonPrimitive(listenCount));
     }
 
     public @Nullable String getYoutubeId() {
@@ -100,16 +106,10 @@ public class Song implements Comparable<Song>, Serializable {
     }
 
     /**
-     * <font color=red>!!! This method walks through every song in every playlist and therefore should not be called too frequently. When wanting to re-use data more often, it is recommended to cache them !!!</font>
+     * @return The number of playlists containing this song, looked up in the {@link SongUsageIndex}
      */
     public int summarizeUseCount() {
-        AtomicInteger integer = new AtomicInteger(0);
-        PlaylistConfigWrapper.loadConfig().playlists.forEach(playlist -> {
-            playlist.getSongs().forEach(song -> {
-                if (song.id.equals(this.id)) integer.incrementAndGet();
-            });
-        });
-        return integer.get();
+        return SongUsageIndex.useCount(id);
     }
 
     @Override
@@ -133,7 +133,21 @@ public class Song implements Comparable<Song>, Serializable {
     }
 
     public void setVolumeAdjustment(double volumeAdjustment) {
+        if (volumeAdjustment == this.volumeAdjustment) return;
         this.volumeAdjustment = volumeAdjustment;
+        SongConfigWrapper.record(id, "volumeAdjustment", new JsonPrimitive(volumeAdjustment));
+    }
+
+    /**
+     * Re-applies a change that was recorded in the song journal. Values are absolute, so applying a record twice is harmless.
+     */
+    public void applyJournalRecord(String op, JsonElement value) {
+        switch (op) {
+            case "name" -> name = value.getAsString();
+            case "listenCount" -> listenCount = value.getAsLong();
+            case "volumeAdjustment" -> volumeAdjustment = Math.clamp(value.getAsDouble(), 0.01, 1);
+            default -> System.err.println("Skipping unknown song journal record '" + op + "' for song '" + id + "'");
+        }
     }
 
     public boolean exportToFile(File file) {
@@ -177,8 +191,10 @@ public class Song implements Comparable<Song>, Serializable {
         if (alert.getResult() == ButtonType.OK) {
             new File(Utilities.thumbnailPathFromSong(this)).delete();
             new File(Utilities.audioPathFromSong(this)).delete();
-            SongConfigWrapper.loadConfig().songs.remove(this.getId());
-            PlaylistConfigWrapper.loadConfig().playlists.forEach(playlist -> playlist.getSongs().remove(this));
+            SongConfigWrapper.loadConfig().removeSong(this);
+            AudioMetadataCache.remove(id);
+            ThumbnailVariants.delete(id);
+            SongUsageIndex.playlistsContaining(id).forEach(playlist -> playlist.removeSong(this));
             System.out.println("Deleted song '" + name + "' (ID was '" + id + "')");
             return true;
         }
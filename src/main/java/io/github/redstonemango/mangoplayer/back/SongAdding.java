@@ -64,13 +64,14 @@ public class SongAdding implements IProcessExecuteable {
                             BufferedImage image = ImageIO.read(inputStream);
                             new File(Utilities.thumbnailPathFromSong(song)).getParentFile().mkdirs();
                             ImageIO.write(image, "PNG", new File(Utilities.thumbnailPathFromSong(song)));
+                            ThumbnailVariants.generate(song.getId(), image);
                         }
 
                         tag.deleteArtworkField(); // do not save artwork in the audio asset file
                         Files.copy(file.toPath(), new File(Utilities.audioPathFromSong(song)).toPath());
                         mp3file.save(new File(Utilities.audioPathFromSong(song)));
 
-                        SongConfigWrapper.loadConfig().songs.put(song.getId(), song);
+                        SongConfigWrapper.loadConfig().putSong(song);
                         Platform.runLater(() -> {
                             controller.sortAndRepaintSongs();
                             controller.highlightSong(song);
@@ -145,7 +146,8 @@ public class SongAdding implements IProcessExecuteable {
                 if (success) {
                     Files.move(Path.of(Utilities.dummyPathFromSong(song) + ".mp3"), Path.of(Utilities.audioPathFromSong(song)));
                     Files.move(Path.of(Utilities.dummyPathFromSong(song) + ".png"), Path.of(Utilities.thumbnailPathFromSong(song)));
-                    SongConfigWrapper.loadConfig().songs.put(song.getId(), song);
+                    ThumbnailVariants.generate(song.getId());
+                    SongConfigWrapper.loadConfig().putSong(song);
                     controller.sortAndRepaintSongs();
                     controller.highlightSong(song);
                     System.out.println("Downloaded song '" + song.getName() + "' (ID is '" + song.getId() + "') from youtube video with ID '" + song.getYoutubeId() + "' using the yt-dlp integration");
@@ -0,0 +1,242 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Play order of a playlist, either in playlist order or shuffled.<br>
+ * The shuffled order is an incremental Fisher-Yates shuffle: every step draws a random song from the songs not played in this round yet
+ * and swap-removes it from that pool, so no full permutation is built up front. Only starting a new round refills the pool.
+ * Played songs are kept in a history to go back through.
+ * Songs added to the playlist mid-play join the pool of the current round. Removed songs are skipped once they are reached.
+ */
+public class SongQueue {
+    static final int MAX_HISTORY = 1000;
+
+    private final Random random;
+    private final ListChangeListener<Song> songsListener = this::onSongsChanged;
+    private @Nullable ObservableList<Song> songs = null;
+    private boolean shuffled = false;
+    private @Nullable Song current = null;
+
+    // Playlist order
+    private int currentIndex = -1; // Last known playlist position of the current song, used to continue if it is removed
+
+    // Shuffled order
+    private final List<Song> history = new ArrayList<>(); // Drawn songs in play order. Songs after #position were skipped back over or drawn when peeking
+    private int position = -1;
+    private final List<Song> pool = new ArrayList<>(); // The not yet shuffled part of the Fisher-Yates array
+    private final Set<String> roundIds = new HashSet<>(); // Songs pooled or drawn in this round, so re-adding a song does not repeat it
+
+    public SongQueue() {
+        this(new Random());
+    }
+
+    /**
+     * @param random The source of the shuffled order, e.g. a seeded one for reproducible tests
+     */
+    SongQueue(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Starts a new queue over the playlist's songs.
+     * @param first The song to start with, or {@code null} to start with the first song (or a random one if shuffled)
+     */
+    public void reset(ObservableList<Song> songs, boolean shuffled, @Nullable Song first) {
+        if (this.songs != songs) {
+            if (this.songs != null) this.songs.removeListener(songsListener);
+            songs.addListener(songsListener);
+            this.songs = songs;
+        }
+        this.shuffled = shuffled;
+        history.clear();
+        position = -1;
+        current = null;
+        currentIndex = -1;
+        if (songs.isEmpty()) return;
+
+        if (!shuffled) {
+            currentIndex = first == null ? -1 : songs.indexOf(first);
+            if (currentIndex == -1) currentIndex = 0;
+            current = songs.get(currentIndex);
+            return;
+        }
+        startRound();
+        Song firstSong = first != null && songs.contains(first) ? first : draw();
+        if (firstSong == first) {
+            int poolIndex = songs.indexOf(first); // The pool was just filled in playlist order
+            swapRemove(poolIndex);
+        }
+        history.add(firstSong);
+        position = 0;
+        current = firstSong;
+    }
+
+    public @Nullable Song current() {
+        return current;
+    }
+
+    /**
+     * @param wrap Whether to continue with a new round once all songs were played
+     * @return The song {@link #advance(boolean)} will move to, or {@code null} if the queue ends after the current song
+     */
+    public @Nullable Song peekNext(boolean wrap) {
+        if (songs == null || current == null) return null;
+        if (!shuffled) {
+            int next = nextIndex();
+            if (next < songs.size()) return songs.get(next);
+            return wrap && !songs.isEmpty() ? songs.getFirst() : null;
+        }
+
+        while (position + 1 < history.size()) {
+            Song next = history.get(position + 1);
+            if (songs.contains(next)) return next;
+            history.remove(position + 1); // Removed from the playlist in the meantime
+        }
+        Song next = draw();
+        if (next == null) {
+            if (!wrap) return null;
+            startRound();
+            next = draw();
+            if (next != null && next.equals(current)) { // Never play a song twice in a row because of a new round
+                Song replacement = draw();
+                if (replacement != null) {
+                    pool.add(next);
+                    next = replacement;
+                }
+            }
+            if (next == null) return null;
+        }
+        history.add(next);
+        return next;
+    }
+
+    /**
+     * Moves to the next song.
+     * @return The new current song, or {@code null} if the queue ended. The current song is kept then
+     */
+    public @Nullable Song advance(boolean wrap) {
+        Song next = peekNext(wrap);
+        if (next == null) return null;
+        if (!shuffled) {
+            currentIndex = songs.indexOf(next);
+        }
+        else {
+            position++;
+            trimHistory();
+        }
+        current = next;
+        return next;
+    }
+
+    /**
+     * Moves back to the previously played song.
+     * @param wrap Whether to move to the last song of the playlist (or a random song if shuffled) when at the beginning
+     * @return The new current song, or {@code null} if there is no previous song. The current song is kept then
+     */
+    public @Nullable Song retreat(boolean wrap) {
+        if (songs == null || current == null || songs.isEmpty()) return null;
+        Song previous;
+        if (!shuffled) {
+            int index = previousIndex();
+            if (index < 0) {
+                if (!wrap) return null;
+                index = songs.size() - 1;
+            }
+            previous = songs.get(index);
+            currentIndex = index;
+        }
+        else {
+            int index = previousHistoryIndex();
+            if (index == -1) {
+                if (!wrap) return null;
+                history.addFirst(songs.get(random.nextInt(songs.size()))); // Only happens when wrapping backwards at the very beginning
+                index = 0;
+            }
+            previous = history.get(index);
+            position = index;
+        }
+        current = previous;
+        return previous;
+    }
+
+    public boolean hasNext() {
+        return peekNext(false) != null;
+    }
+
+    public boolean hasPrevious() {
+        if (songs == null || current == null) return false;
+        return shuffled ? previousHistoryIndex() != -1 : previousIndex() >= 0;
+    }
+
+    private int nextIndex() {
+        int index = songs.indexOf(current);
+        return index != -1 ? index + 1 : Math.max(currentIndex, 0); // The current song was removed, so the song after it moved to its position
+    }
+
+    private int previousIndex() {
+        int index = songs.indexOf(current);
+        return index != -1 ? index - 1 : currentIndex - 1;
+    }
+
+    /**
+     * @return The history position of the latest played song before the current one that is still in the playlist, or -1 if there is none
+     */
+    private int previousHistoryIndex() {
+        for (int i = position - 1; i >= 0; i--) {
+            if (songs.contains(history.get(i))) return i;
+            history.remove(i); // Removed from the playlist in the meantime
+            position--;
+        }
+        return -1;
+    }
+
+    private void startRound() {
+        pool.clear();
+        roundIds.clear();
+        for (Song song : songs) {
+            pool.add(song);
+            roundIds.add(song.getId());
+        }
+    }
+
+    /**
+     * @return A random song of the pool, or {@code null} if all songs of this round were drawn
+     */
+    private @Nullable Song draw() {
+        while (!pool.isEmpty()) {
+            Song song = swapRemove(random.nextInt(pool.size()));
+            if (songs.contains(song)) return song;
+            roundIds.remove(song.getId()); // Removed from the playlist in the meantime, so it may join again if re-added
+        }
+        return null;
+    }
+
+    private Song swapRemove(int poolIndex) {
+        Song song = pool.get(poolIndex);
+        pool.set(poolIndex, pool.getLast());
+        pool.removeLast();
+        return song;
+    }
+
+    private void trimHistory() {
+        if (history.size() <= 2 * MAX_HISTORY) return;
+        int dropped = Math.min(history.size() - MAX_HISTORY, position);
+        history.subList(0, dropped).clear(); // Trimmed in batches, so this stays O(1) per song on average
+        position -= dropped;
+    }
+
+    private void onSongsChanged(ListChangeListener.Change<? extends Song> change) {
+        if (!shuffled || current == null) return;
+        while (change.next()) {
+            if (!change.wasAdded()) continue;
+            for (Song song : change.getAddedSubList()) {
+                if (roundIds.add(song.getId())) pool.add(song); // Moved songs are removed and added again, but stay where they are in the round
+            }
+        }
+    }
+}
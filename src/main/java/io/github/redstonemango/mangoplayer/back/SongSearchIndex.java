@@ -0,0 +1,132 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import io.github.redstonemango.mangoplayer.back.config.SongConfigWrapper;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram index over the normalized (lower case, accents removed) song names, answering the song manager's substring filter without scanning the whole library.<br>
+ * Built on first use and kept up to date by {@link SongConfigWrapper} and {@link Song#setName(String)} afterward.
+ */
+public class SongSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MangoPlayer-SongSearch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static Map<String, String> normalizedNamesById = null;
+    private static Map<String, Set<String>> songIdsByGram = null;
+    private static long version = 0; // Increased by every change, so results of an older index state are not narrowed down anymore
+
+    /**
+     * Runs {@link #search(String, String, List)} on the search thread.
+     */
+    public static CompletableFuture<SearchResult> searchAsync(String query, String previousQuery, @Nullable SearchResult previousResults) {
+        return CompletableFuture.supplyAsync(() -> search(query, previousQuery, previousResults), searchExecutor);
+    }
+
+    /**
+     * @param previousQuery The query that produced {@code previousResults}
+     * @param previousResults The result last shown for {@code previousQuery} or {@code null} if it is unknown. If the new query contains the previous one and no song changed since, only these songs are checked
+     * @return All songs whose name contains the query, sorted like the library
+     */
+    public static synchronized SearchResult search(String query, String previousQuery, @Nullable SearchResult previousResults) {
+        ensureBuilt();
+        String normalizedQuery = normalize(query);
+        if (previousResults != null && previousResults.indexVersion() == version && normalizedQuery.contains(normalize(previousQuery))) { // The query only grew, so the matches can only get fewer
+            return new SearchResult(previousResults.songs().stream().filter(song -> matches(song.getId(), normalizedQuery)).toList(), version);
+        }
+        if (normalizedQuery.length() < GRAM_LENGTH) {
+            return new SearchResult(SongConfigWrapper.loadConfig().captureSongs().values().stream().filter(song -> matches(song.getId(), normalizedQuery)).toList(), version);
+        }
+
+        Set<String> candidates = null;
+        for (String gram : grams(normalizedQuery)) { // All grams of the query occur in a matching name, so the rarest one narrows the candidates the most
+            Set<String> songIds = songIdsByGram.getOrDefault(gram, Set.of());
+            if (candidates == null || songIds.size() < candidates.size()) candidates = songIds;
+        }
+        List<Song> results = new ArrayList<>();
+        for (String songId : candidates) {
+            Song song = Song.songFromId(songId);
+            if (song != null && matches(songId, normalizedQuery)) results.add(song);
+        }
+        results.sort(null);
+        return new SearchResult(results, version);
+    }
+
+    public static synchronized void songPut(Song song) {
+        version++;
+        if (normalizedNamesById == null) return; // Will include the change once it is built
+        songRemoved(song.getId());
+        add(song);
+    }
+
+    public static synchronized void songRemoved(String songId) {
+        version++;
+        if (normalizedNamesById == null) return;
+        String normalizedName = normalizedNamesById.remove(songId);
+        if (normalizedName == null) return;
+        for (String gram : grams(normalizedName)) {
+            Set<String> songIds = songIdsByGram.get(gram);
+            if (songIds == null) continue;
+            songIds.remove(songId);
+            if (songIds.isEmpty()) songIdsByGram.remove(gram);
+        }
+    }
+
+    /**
+     * @return The indexed {@linkplain #normalize(String) normalized} name of the song, or {@code null} if the song is unknown
+     */
+    public static synchronized @Nullable String normalizedName(String songId) {
+        ensureBuilt();
+        return normalizedNamesById.get(songId);
+    }
+
+    public static String normalize(String text) {
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean matches(String songId, String normalizedQuery) {
+        String normalizedName = normalizedNamesById.get(songId);
+        return normalizedName != null && normalizedName.contains(normalizedQuery); // Not indexed anymore means the song was deleted in the meantime
+    }
+
+    private static void ensureBuilt() {
+        if (normalizedNamesById != null) return;
+        long start = System.currentTimeMillis();
+        normalizedNamesById = new HashMap<>();
+        songIdsByGram = new HashMap<>();
+        SongConfigWrapper.loadConfig().captureSongs().values().forEach(SongSearchIndex::add); // May run on the search thread
+        System.out.println("Built song search index of " + normalizedNamesById.size() + " songs (" + songIdsByGram.size() + " trigrams) in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private static void add(Song song) {
+        String normalizedName = normalize(song.getName());
+        normalizedNamesById.put(song.getId(), normalizedName);
+        for (String gram : grams(normalizedName)) {
+            songIdsByGram.computeIfAbsent(gram, _ -> new HashSet<>()).add(song.getId());
+        }
+    }
+
+    /**
+     * @param indexVersion The state of the index the songs were found in. Only results of the current state can be narrowed down by a longer query
+     */
+    public record SearchResult(List<Song> songs, long indexVersion) {}
+
+    private static Set<String> grams(String normalizedText) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalizedText.length(); i++) {
+            grams.add(normalizedText.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+}
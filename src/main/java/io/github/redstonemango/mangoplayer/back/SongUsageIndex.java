@@ -0,0 +1,92 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import io.github.redstonemango.mangoplayer.back.config.PlaylistConfigWrapper;
+
+import java.util.*;
+
+/**
+ * Reverse index from song IDs to the playlists containing them.<br>
+ * Built from the playlists' song ID sets on first use and kept up to date by {@link Playlist} and {@link PlaylistConfigWrapper} afterward.
+ */
+public class SongUsageIndex {
+
+    private static Map<String, Set<Playlist>> playlistsBySongId = null;
+
+    public static synchronized Set<Playlist> playlistsContaining(String songId) {
+        ensureBuilt();
+        Set<Playlist> playlists = playlistsBySongId.get(songId);
+        return playlists == null ? Set.of() : Collections.unmodifiableSet(new LinkedHashSet<>(playlists));
+    }
+
+    public static synchronized int useCount(String songId) {
+        ensureBuilt();
+        Set<Playlist> playlists = playlistsBySongId.get(songId);
+        return playlists == null ? 0 : playlists.size();
+    }
+
+    public static synchronized void songAdded(String songId, Playlist playlist) {
+        if (playlistsBySongId == null) return; // Will include the change once it is built
+        playlistsBySongId.computeIfAbsent(songId, _ -> new LinkedHashSet<>()).add(playlist);
+    }
+
+    public static synchronized void songRemoved(String songId, Playlist playlist) {
+        if (playlistsBySongId == null) return;
+        Set<Playlist> playlists = playlistsBySongId.get(songId);
+        if (playlists == null) return;
+        playlists.remove(playlist);
+        if (playlists.isEmpty()) playlistsBySongId.remove(songId);
+    }
+
+    public static synchronized void playlistAdded(Playlist playlist) {
+        if (playlistsBySongId == null) return;
+        playlist.getSongIds().forEach(songId -> songAdded(songId, playlist));
+    }
+
+    public static synchronized void playlistRemoved(Playlist playlist) {
+        if (playlistsBySongId == null) return;
+        playlist.getSongIds().forEach(songId -> songRemoved(songId, playlist));
+    }
+
+    /**
+     * Rebuilds the index from scratch and compares it with the incrementally maintained one.
+     * @return A description of every mismatch, or an empty list if the index is consistent
+     */
+    public static synchronized List<String> checkConsistency() {
+        ensureBuilt();
+        Map<String, Set<Playlist>> expected = buildIndex();
+        List<String> mismatches = new ArrayList<>();
+        Set<String> songIds = new HashSet<>(expected.keySet());
+        songIds.addAll(playlistsBySongId.keySet());
+        for (String songId : songIds) {
+            Set<Playlist> expectedPlaylists = expected.getOrDefault(songId, Set.of());
+            Set<Playlist> indexedPlaylists = playlistsBySongId.getOrDefault(songId, Set.of());
+            if (!expectedPlaylists.equals(indexedPlaylists)) {
+                mismatches.add("Song '" + songId + "' is contained in " + playlistIds(expectedPlaylists) + " but indexed for " + playlistIds(indexedPlaylists));
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            System.err.println("Song usage index is inconsistent: " + mismatches);
+        }
+        return mismatches;
+    }
+
+    private static void ensureBuilt() {
+        if (playlistsBySongId == null) {
+            playlistsBySongId = buildIndex();
+        }
+    }
+
+    private static Map<String, Set<Playlist>> buildIndex() {
+        Map<String, Set<Playlist>> index = new HashMap<>();
+        for (Playlist playlist : PlaylistConfigWrapper.loadConfig().playlists) {
+            for (String songId : playlist.captureSongIds()) { // May run off the FX thread, e.g. while the use analyser loads
+                index.computeIfAbsent(songId, _ -> new LinkedHashSet<>()).add(playlist);
+            }
+        }
+        return index;
+    }
+
+    private static List<String> playlistIds(Set<Playlist> playlists) {
+        return playlists.stream().map(Playlist::getId).toList();
+    }
+}
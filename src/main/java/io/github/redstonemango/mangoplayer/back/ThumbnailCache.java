@@ -0,0 +1,149 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import io.github.redstonemango.mangoplayer.back.config.MainConfigWrapper;
+import javafx.scene.image.Image;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared cache of decoded thumbnails and playlist graphics, keyed by owner ID and target size.<br>
+ * Images are decoded downscaled to the requested size instead of at the full resolution of the file. Song thumbnails are read from their {@link ThumbnailVariants} if available.
+ * The least recently used images are evicted once the decoded bytes exceed {@link MainConfigWrapper#thumbnailCacheMegabytes}.
+ */
+public class ThumbnailCache {
+    public static final int SIZE_LIST = ThumbnailVariants.SIZE_SMALL; // List cells show thumbnails at about 50px. Twice that keeps them sharp on HiDPI screens
+    public static final int SIZE_DETAILS = ThumbnailVariants.SIZE_MEDIUM;
+
+    private static final LinkedHashMap<Key, Image> images = new LinkedHashMap<>(64, 0.75f, true);
+    private static long cachedBytes = 0;
+    private static long decodedBytes = 0;
+    private static long hits = 0;
+    private static long misses = 0;
+    private static long invalidations = 0;
+
+    /**
+     * @return The song's thumbnail fitting into {@code size}x{@code size} pixels, or {@code null} if the song does not have one
+     */
+    public static @Nullable Image thumbnail(String songId, int size) {
+        File variant = ThumbnailVariants.variantFor(songId, size);
+        return get(new Key(songId, size), variant != null ? variant : new File(Utilities.thumbnailPathFromSongId(songId, true)));
+    }
+
+    /**
+     * @return The song's thumbnail if it is already decoded, without touching the disk otherwise
+     */
+    public static @Nullable Image cachedThumbnail(String songId, int size) {
+        return cached(new Key(songId, size));
+    }
+
+    public static @Nullable Image cachedPlaylistGraphic(Playlist playlist, int size) {
+        return cached(new Key("playlist:" + playlist.getId(), size));
+    }
+
+    public static Image thumbnailOrFallback(Song song, int size) {
+        Image image = thumbnail(song.getId(), size);
+        return image == null ? Finals.IMAGE_THUMBNAIL_FALLBACK : image;
+    }
+
+    /**
+     * @return The playlist's own graphic fitting into {@code size}x{@code size} pixels, or {@code null} if it does not have one
+     */
+    public static @Nullable Image playlistGraphic(Playlist playlist, int size) {
+        return get(new Key("playlist:" + playlist.getId(), size), new File(Utilities.graphicPathFromPlaylist(playlist)));
+    }
+
+    /**
+     * Drops all cached sizes of a song's thumbnail. Call this whenever the thumbnail file is replaced or removed.
+     */
+    public static void invalidate(String songId) {
+        invalidateKey(songId);
+    }
+
+    public static void invalidate(Playlist playlist) {
+        invalidateKey("playlist:" + playlist.getId());
+    }
+
+    public static synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    /**
+     * @return The bytes of all images decoded since startup, including those evicted since
+     */
+    public static synchronized long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    public static synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    private static synchronized @Nullable Image cached(Key key) {
+        Image image = images.get(key);
+        if (image != null) hits++;
+        return image;
+    }
+
+    private static @Nullable Image get(Key key, File file) {
+        long invalidationsBeforeDecode;
+        synchronized (ThumbnailCache.class) {
+            invalidationsBeforeDecode = invalidations;
+            Image image = images.get(key);
+            if (image != null) {
+                hits++;
+                return image;
+            }
+            misses++;
+        }
+        if (!file.exists()) return null;
+
+        Image image = new Image(file.toURI().toString(), key.size(), key.size(), true, true); // Decoded outside the lock, so loader threads do not block each other or the FX thread
+        if (image.isError()) {
+            System.err.println("Unable to decode image '" + file.getAbsolutePath() + "': " + image.getException());
+            return null;
+        }
+        long bytes = byteSize(image);
+        synchronized (ThumbnailCache.class) {
+            decodedBytes += bytes;
+            Image concurrentlyDecoded = images.get(key);
+            if (concurrentlyDecoded != null) return concurrentlyDecoded;
+            if (invalidations != invalidationsBeforeDecode) return image; // The file might have changed while it was decoded, so do not cache it
+            cachedBytes += bytes;
+            images.put(key, image);
+            evictToBudget();
+        }
+        return image;
+    }
+
+    private static synchronized void invalidateKey(String id) {
+        invalidations++;
+        Iterator<Map.Entry<Key, Image>> iterator = images.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Image> entry = iterator.next();
+            if (entry.getKey().id().equals(id)) {
+                cachedBytes -= byteSize(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void evictToBudget() {
+        long budget = MainConfigWrapper.loadConfig().thumbnailCacheMegabytes * 1024L * 1024L;
+        Iterator<Image> iterator = images.values().iterator(); // Access order, so the least recently used image comes first
+        while (cachedBytes > budget && images.size() > 1 && iterator.hasNext()) {
+            cachedBytes -= byteSize(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    private static long byteSize(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4; // Decoded as 32 bit ARGB
+    }
+
+    private record Key(String id, int size) {}
+}
@@ -0,0 +1,144 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import javafx.application.Platform;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Loads thumbnails and playlist graphics into image views without decoding them on the FX thread.<br>
+ * The view shows a placeholder until the image is decoded by one of the loader threads. Every view remembers which image it was last asked to show,
+ * so a result arriving after the view was reused for another item is dropped.
+ * Requests for visible views are served before prefetch requests.
+ */
+public class ThumbnailLoader {
+    private static final int LOADER_THREADS = 2;
+    private static final int PREFETCH_ROWS = 8;
+    private static final int MAX_QUEUED_PREFETCHES = 64;
+    private static final String REQUEST_PROPERTY = "mangoplayer.thumbnailRequest";
+
+    private static final LinkedBlockingDeque<Runnable> queue = new LinkedBlockingDeque<>();
+    private static boolean threadsStarted = false;
+
+    public static void loadThumbnail(ImageView view, String songId, int size) {
+        load(view, "song:" + songId + "@" + size, ThumbnailCache.cachedThumbnail(songId, size), Finals.IMAGE_THUMBNAIL_FALLBACK, () -> ThumbnailCache.thumbnail(songId, size));
+    }
+
+    /**
+     * Loads the playlist's own graphic, falling back to the thumbnail of its first song.
+     */
+    public static void loadPlaylistGraphic(ImageView view, Playlist playlist, int size) {
+        String firstSongId = playlist.getFirstSongId();
+        boolean hasGraphic = new File(Utilities.graphicPathFromPlaylist(playlist)).exists();
+        if (!hasGraphic && firstSongId == null) {
+            view.getProperties().remove(REQUEST_PROPERTY);
+            view.setImage(Finals.IMAGE_NO_SONG);
+            return;
+        }
+        Image cached = hasGraphic ? ThumbnailCache.cachedPlaylistGraphic(playlist, size) : ThumbnailCache.cachedThumbnail(firstSongId, size);
+        load(view, "playlist:" + playlist.getId() + "@" + size, cached, Finals.IMAGE_THUMBNAIL_FALLBACK,
+                () -> hasGraphic ? ThumbnailCache.playlistGraphic(playlist, size) : ThumbnailCache.thumbnail(firstSongId, size));
+    }
+
+    public static void prefetchThumbnail(String songId, int size) {
+        if (ThumbnailCache.cachedThumbnail(songId, size) != null) return;
+        prefetch(() -> ThumbnailCache.thumbnail(songId, size));
+    }
+
+    public static void prefetchPlaylistGraphic(Playlist playlist, int size) {
+        if (ThumbnailCache.cachedPlaylistGraphic(playlist, size) != null) return;
+        String firstSongId = playlist.getFirstSongId();
+        prefetch(() -> {
+            if (ThumbnailCache.playlistGraphic(playlist, size) == null && firstSongId != null) ThumbnailCache.thumbnail(firstSongId, size);
+        });
+    }
+
+    /**
+     * Prefetches the images of the rows just outside the list view's viewport, in the direction the list is scrolled.
+     * @param prefetch Starts the prefetch of an item's image, e.g. {@code song -> prefetchThumbnail(song.getId(), size)}
+     */
+    public static <T> void installPrefetcher(ListView<T> listView, Consumer<T> prefetch) {
+        if (listView.getSkin() != null) {
+            attachPrefetcher(listView, prefetch);
+        }
+        else {
+            listView.skinProperty().addListener((_, oldSkin, newSkin) -> {
+                if (oldSkin == null && newSkin != null) attachPrefetcher(listView, prefetch);
+            });
+        }
+    }
+
+    private static <T> void attachPrefetcher(ListView<T> listView, Consumer<T> prefetch) {
+        if (!(listView.lookup(".virtual-flow") instanceof VirtualFlow<?> flow)) {
+            System.err.println("Unable to install thumbnail prefetcher: List view has no virtual flow");
+            return;
+        }
+        flow.positionProperty().addListener((_, oldPosition, newPosition) -> {
+            IndexedCell<?> first = flow.getFirstVisibleCell();
+            IndexedCell<?> last = flow.getLastVisibleCell();
+            if (first == null || last == null) return;
+            List<T> items = listView.getItems();
+            boolean scrollingDown = newPosition.doubleValue() >= oldPosition.doubleValue();
+            int from = scrollingDown ? last.getIndex() + 1 : Math.max(0, first.getIndex() - PREFETCH_ROWS);
+            int to = scrollingDown ? Math.min(items.size(), last.getIndex() + 1 + PREFETCH_ROWS) : Math.max(0, first.getIndex());
+            for (int i = from; i < to; i++) {
+                prefetch.accept(items.get(i));
+            }
+        });
+    }
+
+    private static void load(ImageView view, String request, @Nullable Image cached, Image placeholder, Supplier<@Nullable Image> decode) {
+        view.getProperties().put(REQUEST_PROPERTY, request);
+        if (cached != null) {
+            view.setImage(cached);
+            return;
+        }
+        view.setImage(placeholder);
+        ensureThreadsStarted();
+        queue.offerFirst(() -> {
+            Image image = decode.get();
+            Platform.runLater(() -> {
+                if (request.equals(view.getProperties().get(REQUEST_PROPERTY))) { // Otherwise, the view was reused for another item in the meantime
+                    view.setImage(image == null ? placeholder : image);
+                }
+            });
+        });
+    }
+
+    private static void prefetch(Runnable decode) {
+        if (queue.size() >= MAX_QUEUED_PREFETCHES) return; // Scrolling faster than images are decoded, the skipped rows will be loaded once visible
+        ensureThreadsStarted();
+        queue.offerLast(decode);
+    }
+
+    private static synchronized void ensureThreadsStarted() {
+        if (threadsStarted) return;
+        threadsStarted = true;
+        for (int i = 0; i < LOADER_THREADS; i++) {
+            Thread thread = new Thread(ThumbnailLoader::work, "MangoPlayer-ThumbnailLoader-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private static void work() {
+        while (true) {
+            try {
+                queue.take().run();
+            } catch (InterruptedException _) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Error while loading thumbnail: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import io.github.redstonemango.mangoplayer.back.config.MainConfigWrapper;
+import io.github.redstonemango.mangoplayer.back.config.SongConfigWrapper;
+import javafx.application.Platform;
+import org.jetbrains.annotations.Nullable;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Downscaled copies of song thumbnails, stored next to the originals, so views showing thumbnails small never have to decode the full resolution file.<br>
+ * The original thumbnail stays the source of truth. Variants are regenerated whenever a thumbnail is ingested or changed and removed together with it.
+ */
+public class ThumbnailVariants {
+    public static final int SIZE_SMALL = 96;
+    public static final int SIZE_MEDIUM = 192;
+    private static final int[] SIZES = {SIZE_SMALL, SIZE_MEDIUM};
+
+    /**
+     * (Re-)generates the variants from the song's thumbnail file, or deletes them if the song does not have a thumbnail (anymore).
+     */
+    public static void generate(String songId) {
+        File original = new File(Utilities.thumbnailPathFromSongId(songId, true));
+        if (!original.exists()) {
+            delete(songId);
+            return;
+        }
+        try {
+            BufferedImage image = ImageIO.read(original);
+            if (image == null) {
+                System.err.println("Unable to generate thumbnail variants for song '" + songId + "': Unsupported image format");
+                return;
+            }
+            generate(songId, image);
+        } catch (IOException e) {
+            System.err.println("Unable to generate thumbnail variants for song '" + songId + "': " + e);
+        }
+    }
+
+    /**
+     * Generates the variants from an already decoded thumbnail.
+     */
+    public static void generate(String songId, BufferedImage image) throws IOException {
+        for (int size : SIZES) {
+            File target = new File(Utilities.thumbnailVariantPathFromSongId(songId, size));
+            target.getParentFile().mkdirs();
+            ImageIO.write(scale(image, size), "PNG", target);
+        }
+        ThumbnailCache.invalidate(songId);
+    }
+
+    public static void delete(String songId) {
+        for (int size : SIZES) {
+            new File(Utilities.thumbnailVariantPathFromSongId(songId, size)).delete();
+        }
+        ThumbnailCache.invalidate(songId);
+    }
+
+    /**
+     * @return The smallest stored variant that is at least {@code size} pixels large, or {@code null} if there is none
+     */
+    public static @Nullable File variantFor(String songId, int size) {
+        for (int variantSize : SIZES) {
+            if (variantSize >= size) {
+                File variant = new File(Utilities.thumbnailVariantPathFromSongId(songId, variantSize));
+                if (variant.exists()) return variant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Generates the variants for all thumbnails that were stored before variants existed. Only runs once, as it is recorded in the main config when done.
+     */
+    public static void migrateInBackground() {
+        if (MainConfigWrapper.loadConfig().thumbnailVariantsGenerated) return;
+        List<String> songIds = new ArrayList<>(SongConfigWrapper.loadConfig().songs.keySet());
+        Thread thread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            int generated = 0;
+            for (String songId : songIds) {
+                if (new File(Utilities.thumbnailPathFromSongId(songId, true)).exists() && variantFor(songId, SIZE_MEDIUM) == null) {
+                    generate(songId);
+                    generated++;
+                }
+            }
+            System.out.println("Generated thumbnail variants for " + generated + " existing songs in " + (System.currentTimeMillis() - start) + "ms");
+            Platform.runLater(() -> {
+                MainConfigWrapper.loadConfig().thumbnailVariantsGenerated = true;
+                MainConfigWrapper.markDirty();
+            });
+        }, "MangoPlayer-ThumbnailMigration");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private static BufferedImage scale(BufferedImage image, int size) {
+        double scaleFactor = Math.min(1, Math.min((double) size / image.getWidth(), (double) size / image.getHeight())); // Never upscale
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scaleFactor));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scaleFactor));
+        BufferedImage scaled = image;
+        do { // Halve step by step, as a single bicubic pass from a large image to a small one skips most source pixels
+            int stepWidth = Math.max(width, scaled.getWidth() / 2);
+            int stepHeight = Math.max(height, scaled.getHeight() / 2);
+            BufferedImage step = new BufferedImage(stepWidth, stepHeight, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(scaled, 0, 0, stepWidth, stepHeight, null);
+            graphics.dispose();
+            scaled = step;
+        } while (scaled.getWidth() != width || scaled.getHeight() != height);
+        return scaled;
+    }
+}
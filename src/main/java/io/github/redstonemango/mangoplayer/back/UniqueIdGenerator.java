@@ -15,46 +15,53 @@ public class UniqueIdGenerator {
     private static int playlistIdLength = -1;
 
     private static final int MAX_RANDOM_ATTEMPTS = 1000;
-
-    public static String generateUniqueString(IdUse use) {
-        if (songIdLength == -1 || playlistIdLength == -1) initializeIdLengths();
-
-        int length = use == IdUse.SONG_ID ? songIdLength : playlistIdLength;
-
-        Set<String> existingIds = loadExistingIds(use);
-
-        // First try random attempts
-        int estimatedCollisions = Math.max(1, (int) Math.min(MAX_RANDOM_ATTEMPTS, 10 * Math.sqrt(existingIds.size()))); // birthday paradox back
-        for (int attempt = 0; attempt < estimatedCollisions; attempt++) {
-            String id = generateRandomString(length);
-            if (!existingIds.contains(id)) {
-                updateLengthIfNeeded(use);
-                return id;
+    private static final byte[] randomPool = new byte[4096];
+    private static int randomPoolPosition = randomPool.length;
+
+    // Live indices of all IDs that exist or were handed out during this session. Seeded from the configs on first use
+    private static Set<String> songIds = null;
+    private static Set<String> playlistIds = null;
+
+    public static synchronized String generateUniqueString(IdUse use) {
+        Set<String> existingIds = existingIds(use);
+        while (true) {
+            int length = use == IdUse.SONG_ID ? songIdLength : playlistIdLength;
+            for (int attempt = 0; attempt < MAX_RANDOM_ATTEMPTS; attempt++) {
+                String id = generateRandomString(length);
+                if (existingIds.add(id)) { // Reserves the ID right away, so IDs of objects that are not registered yet cannot be handed out twice
+                    updateLengthIfNeeded(use);
+                    return id;
+                }
             }
+            // Random attempts only fail this often if the ID space is nearly exhausted, so continue with longer IDs
+            if (use == IdUse.SONG_ID) songIdLength++;
+            else playlistIdLength++;
         }
+    }
 
-        // If random fails, fall back to deterministic approach
-        long totalCombinations = (long) Math.pow(CHARSET.length(), length);
-
-        // If there's still space, generate all possible IDs and return an unused one
-        if (existingIds.size() < totalCombinations) {
-            Optional<String> fallback = findUnusedId(length, existingIds);
-            if (fallback.isPresent()) {
-                updateLengthIfNeeded(use);
-                return fallback.get();
-            }
+    /**
+     * Generates several unique IDs at once, e.g. for bulk imports.
+     * @param count The number of IDs to generate
+     * @return The generated IDs, which are already reserved and therefore unique among each other as well
+     */
+    public static synchronized List<String> generateBatch(IdUse use, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(generateUniqueString(use));
         }
+        return ids;
+    }
 
-        // All combinations are used, increase length and retry
-        if (use == IdUse.SONG_ID) songIdLength++;
-        else playlistIdLength++;
-
-        return generateUniqueString(use); // Recurse with increased length
+    /**
+     * Drops the live ID indices, so they are seeded from the configs again on next use.
+     */
+    static synchronized void resetIndices() {
+        songIds = null;
+        playlistIds = null;
     }
 
-    public static void updateLengthIfNeeded(IdUse use) {
-        int currentSize = (use == IdUse.SONG_ID ? SongConfigWrapper.loadConfig().songs.size()
-                : PlaylistConfigWrapper.loadConfig().playlists.size()) + 1;
+    public static synchronized void updateLengthIfNeeded(IdUse use) {
+        int currentSize = existingIds(use).size() + 1;
 
         if (use == IdUse.SONG_ID) {
             while (Math.pow(CHARSET.length(), songIdLength) <= currentSize) {
@@ -67,9 +74,24 @@ public class UniqueIdGenerator {
         }
     }
 
-    public static void initializeIdLengths() {
-        songIdLength = computeMinimumLength(SongConfigWrapper.loadConfig().songs.size());
-        playlistIdLength = computeMinimumLength(PlaylistConfigWrapper.loadConfig().playlists.size());
+    private static Set<String> existingIds(IdUse use) {
+        if (use == IdUse.SONG_ID) {
+            if (songIds == null) {
+                songIds = new HashSet<>();
+                SongConfigWrapper.loadConfig().songs.forEach((id, _) -> songIds.add(id));
+                songIdLength = computeMinimumLength(songIds.size());
+            }
+            return songIds;
+        } else {
+            if (playlistIds == null) {
+                playlistIds = new HashSet<>();
+                PlaylistConfigWrapper.loadConfig().playlists.forEach(playlist -> {
+                    if (playlist.getId() != null) playlistIds.add(playlist.getId());
+                });
+                playlistIdLength = computeMinimumLength(playlistIds.size());
+            }
+            return playlistIds;
+        }
     }
 
     private static int computeMinimumLength(int existingItemCount) {
@@ -80,53 +102,22 @@ public class UniqueIdGenerator {
         return Math.max(length, 10);
     }
 
-    private static Set<String> loadExistingIds(IdUse use) {
-        Set<String> idSet = new HashSet<>();
-        if (use == IdUse.SONG_ID) {
-            SongConfigWrapper.loadConfig().songs.forEach((_, song) -> idSet.add(song.getId()));
-        } else {
-            PlaylistConfigWrapper.loadConfig().playlists.forEach(playlist -> idSet.add(playlist.getId()));
-        }
-        return idSet;
-    }
-
     private static String generateRandomString(int length) {
-        StringBuilder sb = new StringBuilder(length);
-        for (int i = 0; i < length; i++) {
-            sb.append(CHARSET.charAt(random.nextInt(CHARSET.length())));
-        }
-        return sb.toString();
-    }
-
-    private static Optional<String> findUnusedId(int length, Set<String> existingIds) {
         char[] chars = new char[length];
-        Arrays.fill(chars, CHARSET.charAt(0));
-
-        long totalCombinations = (long) Math.pow(CHARSET.length(), length);
-
-        for (long i = 0; i < totalCombinations; i++) {
-            String candidate = new String(chars);
-            if (!existingIds.contains(candidate)) {
-                return Optional.of(candidate);
-            }
-            increment(chars);
+        for (int i = 0; i < length; i++) {
+            chars[i] = CHARSET.charAt(nextCharIndex());
         }
-        return Optional.empty(); // All IDs are used
+        return new String(chars);
     }
 
-    private static void increment(char[] chars) {
-        int base = CHARSET.length();
-        int index = chars.length - 1;
-
-        while (index >= 0) {
-            int currentCharIndex = CHARSET.indexOf(chars[index]);
-            if (currentCharIndex < base - 1) {
-                chars[index] = CHARSET.charAt(currentCharIndex + 1);
-                return;
-            } else {
-                chars[index] = CHARSET.charAt(0);
-                index--;
+    private static int nextCharIndex() {
+        while (true) {
+            if (randomPoolPosition >= randomPool.length) {
+                random.nextBytes(randomPool); // One SecureRandom call per pool instead of one per character
+                randomPoolPosition = 0;
             }
+            int index = randomPool[randomPoolPosition++] & 63;
+            if (index < CHARSET.length()) return index; // Reject 62 and 63 to keep the distribution uniform
         }
     }
 
@@ -21,7 +21,10 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -89,6 +92,38 @@ public class Utilities {
         });
     }
 
+    /**
+     * Applies a cell factory to a ListView whose cells create their entry node once and rebind it to every item they display afterward,
+     * so scrolling and refreshing the view does not allocate new node trees.
+     *
+     * @param listView      The ListView to apply the cell factory to.
+     * @param entryFactory  Creates the (unbound) entry of a new cell.
+     * @param binder        Updates an entry to display the given item. Must reset all item-specific state, as entries are reused for other items.
+     * @param <T>           The type of items in the ListView.
+     * @param <E>           The type of entry node.
+     */
+    public static <T, E extends Node> void applyRecyclingListViewCellFactory(ListView<T> listView, Supplier<E> entryFactory, BiConsumer<E, T> binder) {
+        listView.setCellFactory(_ -> new ListCell<>() {
+            private @Nullable E entry = null;
+
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setGraphic(null);
+                    setText(null);
+                } else {
+                    if (entry == null) {
+                        entry = entryFactory.get();
+                        setPadding(Insets.EMPTY);
+                    }
+                    binder.accept(entry, item);
+                    setGraphic(entry);
+                }
+            }
+        });
+    }
+
     public static <T> void applyComboBoxCellFactory(ComboBox<T> comboBox, Function<T, Node> nodeFunction) {
         comboBox.setCellFactory(new Callback<>() {
             @Override
@@ -185,23 +220,6 @@ public class Utilities {
         });
     }
 
-    public static <T> T getRandomElementExcluding(List<T> list, T exclusion) {
-        Random rand = new Random();
-        T result = null;
-        int count = 0;
-
-        for (T item : list) {
-            if (!item.equals(exclusion)) {
-                count++;
-                if (rand.nextInt(count) == 0) {
-                    result = item;
-                }
-            }
-        }
-
-        return count == 0 ? null : result;
-    }
-
     public static String formatDuration(Duration duration) {
         StringBuilder builder = new StringBuilder();
 
@@ -258,21 +276,29 @@ public class Utilities {
     }
 
     public static void sortSongs() {
-        List<Map.Entry<String, Song>> entryList = new ArrayList<>(SongConfigWrapper.loadConfig().songs.entrySet());
-        entryList.sort(Map.Entry.comparingByValue());
-        LinkedHashMap<String, Song> sortedMap = new LinkedHashMap<>();
-        for (Map.Entry<String, Song> entry : entryList) {
-            sortedMap.put(entry.getKey(), entry.getValue());
+        SongConfigWrapper wrapper = SongConfigWrapper.loadConfig();
+        synchronized (wrapper) { // Songs may be added from an import thread at the same time
+            List<Map.Entry<String, Song>> entryList = new ArrayList<>(wrapper.songs.entrySet());
+            entryList.sort(Map.Entry.comparingByValue());
+            LinkedHashMap<String, Song> sortedMap = new LinkedHashMap<>();
+            for (Map.Entry<String, Song> entry : entryList) {
+                sortedMap.put(entry.getKey(), entry.getValue());
+            }
+            wrapper.songs = sortedMap;
         }
-        SongConfigWrapper.loadConfig().songs = sortedMap;
+    }
+
+    /**
+     * @return A weigher ranking song name completions by the listen count of the songs at the time of this call
+     */
+    public static ToLongFunction<String> listenCountWeigher(Collection<Song> songs) {
+        Map<String, Long> listenCounts = new HashMap<>(songs.size() * 4 / 3 + 1);
+        songs.forEach(song -> listenCounts.merge(song.getName(), song.getListenCount(), Math::max));
+        return name -> listenCounts.getOrDefault(name, 0L);
     }
 
     public static void tryMovePlaylistToListTop(Playlist playlist) {
-        List<Playlist> playlists = PlaylistConfigWrapper.loadConfig().playlists;
-        if (!playlists.getFirst().equals(playlist)) {
-            playlists.remove(playlist);
-            playlists.addFirst(playlist);
-        }
+        PlaylistConfigWrapper.loadConfig().movePlaylistToTop(playlist);
     }
 
     public static @Nullable String youtubeUrlFromSong(Song song) {
@@ -305,7 +331,13 @@ public class Utilities {
         return MangoPlayer.APP_FOLDER_PATH + "/assets/dummy/" + song.getId();
     }
     public static String thumbnailPathFromSong(Song song, boolean suffix) {
-        return MangoPlayer.APP_FOLDER_PATH + "/assets/thumbnails/" + song.getId() + (suffix ? ".png" : "");
+        return thumbnailPathFromSongId(song.getId(), suffix);
+    }
+    public static String thumbnailPathFromSongId(String songId, boolean suffix) {
+        return MangoPlayer.APP_FOLDER_PATH + "/assets/thumbnails/" + songId + (suffix ? ".png" : "");
+    }
+    public static String thumbnailVariantPathFromSongId(String songId, int size) {
+        return MangoPlayer.APP_FOLDER_PATH + "/assets/thumbnails/" + size + "px/" + songId + ".png";
     }
     public static String graphicPathFromPlaylist(Playlist playlist) {
         return MangoPlayer.APP_FOLDER_PATH + "/assets/playlistGraphics/" + playlist.getId() + ".png";
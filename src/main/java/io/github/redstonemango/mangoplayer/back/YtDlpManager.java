@@ -488,6 +488,7 @@ public class YtDlpManager {
         if (file != null) {
             path = file.getAbsolutePath();
             MainConfigWrapper.loadConfig().ytDlpPath = file.getAbsolutePath();
+            MainConfigWrapper.markDirty();
         }
         else {
             return false;
@@ -520,6 +521,7 @@ public class YtDlpManager {
         if (file != null) {
             ffmpegPath = file.getAbsolutePath();
             MainConfigWrapper.loadConfig().ffmpegPath = file.getAbsolutePath();
+            MainConfigWrapper.markDirty();
         }
         else {
             return false;
@@ -529,11 +531,13 @@ public class YtDlpManager {
     public boolean useDefaultExecuteable() {
         path = "yt-dlp";
         MainConfigWrapper.loadConfig().ytDlpPath = "yt-dlp";
+        MainConfigWrapper.markDirty();
         return checkAvailable();
     }
     public boolean useDefaultFfmpegExecuteable() {
         ffmpegPath = "ffmpeg";
         MainConfigWrapper.loadConfig().ffmpegPath = "ffmpeg";
+        MainConfigWrapper.markDirty();
         return checkFfmpegAvailable();
     }
 
@@ -0,0 +1,127 @@
+package io.github.redstonemango.mangoplayer.back.config;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import io.github.redstonemango.mangoplayer.back.Song;
+import io.github.redstonemango.mangoplayer.back.Utilities;
+import io.github.redstonemango.mangoplayer.front.MangoPlayer;
+import org.jaudiotagger.audio.AudioFile;
+import org.jaudiotagger.audio.AudioFileIO;
+import org.jaudiotagger.audio.AudioHeader;
+import org.jaudiotagger.audio.exceptions.CannotReadException;
+import org.jaudiotagger.audio.exceptions.InvalidAudioFrameException;
+import org.jaudiotagger.audio.exceptions.ReadOnlyFileException;
+import org.jaudiotagger.tag.FieldKey;
+import org.jaudiotagger.tag.Tag;
+import org.jaudiotagger.tag.TagException;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persisted cache of audio header data, so song files do not have to be opened with jaudiotagger every session.<br>
+ * Entries are keyed by song ID and only trusted as long as the audio asset's size and modification time are unchanged.
+ */
+public class AudioMetadataCache {
+    public static final String cacheFilePath = MangoPlayer.APP_FOLDER_PATH + "/audioMetadata.json";
+
+    private static volatile Map<String, AudioMetadata> entries = null;
+    private static volatile boolean dirty = false;
+
+    /**
+     * @return The metadata of the song's audio asset, read from the file only if it is not cached or changed since, or {@code null} if the file cannot be read
+     */
+    public static @Nullable AudioMetadata get(Song song) {
+        File file = new File(Utilities.audioPathFromSong(song));
+        Map<String, AudioMetadata> cache = loadEntries();
+        AudioMetadata cached = cache.get(song.getId());
+        if (cached != null && cached.fileSize() == file.length() && cached.lastModified() == file.lastModified()) {
+            return cached;
+        }
+
+        AudioMetadata metadata = readFile(file);
+        if (metadata != null) {
+            cache.put(song.getId(), metadata);
+            dirty = true;
+        }
+        return metadata;
+    }
+
+    /**
+     * @return The cached metadata if it is still valid, without reading the audio file otherwise
+     */
+    public static @Nullable AudioMetadata getIfCached(Song song) {
+        AudioMetadata cached = loadEntries().get(song.getId());
+        if (cached == null) return null;
+        File file = new File(Utilities.audioPathFromSong(song));
+        return cached.fileSize() == file.length() && cached.lastModified() == file.lastModified() ? cached : null;
+    }
+
+    public static void remove(String songId) {
+        if (loadEntries().remove(songId) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Captures the cache for a background save, just like the config wrappers do.
+     * @return The task writing the cache or {@code null} if nothing changed
+     */
+    public static synchronized @Nullable Runnable snapshot() {
+        if (entries == null || !dirty) return null;
+        dirty = false;
+        Map<String, AudioMetadata> captured = entries; // Concurrent map, so it can be iterated while entries are added
+        return () -> {
+            try {
+                ConfigIO.writeSnapshot(new File(cacheFilePath), new Gson(), captured, false);
+            } catch (IOException e) {
+                dirty = true;
+                System.err.println("Unable to save audio metadata cache: " + e);
+            }
+        };
+    }
+
+    private static synchronized Map<String, AudioMetadata> loadEntries() {
+        if (entries == null) {
+            Map<String, AudioMetadata> loaded = null;
+            try {
+                loaded = ConfigIO.readSnapshot(new File(cacheFilePath), new Gson(), new TypeToken<Map<String, AudioMetadata>>() {}.getType());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Unable to load audio metadata cache, starting with an empty one: " + e); // It is only a cache, so there is no need to bother the user
+            }
+            entries = new ConcurrentHashMap<>();
+            if (loaded != null) {
+                loaded.forEach((songId, metadata) -> {
+                    if (songId != null && metadata != null && Song.songFromId(songId) != null) entries.put(songId, metadata);
+                });
+                if (entries.size() != loaded.size()) dirty = true; // Entries of deleted songs were dropped
+            }
+            System.out.println("Loaded " + entries.size() + " cached audio metadata entries");
+        }
+        return entries;
+    }
+
+    private static @Nullable AudioMetadata readFile(File file) {
+        try {
+            AudioFile audioFile = AudioFileIO.read(file);
+            AudioHeader header = audioFile.getAudioHeader();
+            Tag tag = audioFile.getTag();
+            String title = tag == null ? null : tag.getFirst(FieldKey.TITLE);
+            return new AudioMetadata(file.length(), file.lastModified(), header.getTrackLength(),
+                    header.getBitRateAsNumber(), header.getSampleRateAsNumber(), title == null || title.isBlank() ? null : title);
+        } catch (CannotReadException | IOException | TagException | ReadOnlyFileException | InvalidAudioFrameException _) {
+            return null;
+        }
+    }
+
+    /**
+     * @param durationSeconds The track length in seconds
+     * @param bitrate The bitrate in kbps
+     * @param sampleRate The sample rate in Hz
+     * @param title The title embedded in the file's tag, if any
+     */
+    public record AudioMetadata(long fileSize, long lastModified, double durationSeconds, long bitrate, int sampleRate, @Nullable String title) {}
+}
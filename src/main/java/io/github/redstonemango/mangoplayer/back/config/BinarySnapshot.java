@@ -0,0 +1,226 @@
+package io.github.redstonemango.mangoplayer.back.config;
+
+import io.github.redstonemango.mangoplayer.back.Playlist;
+import io.github.redstonemango.mangoplayer.back.Song;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Optional binary copy of {@code songs.json} / {@code playlists.json} that can be loaded without reflective JSON parsing.<br>
+ * The JSON files stay the interchange format. A binary snapshot is written right after its JSON snapshot and stamped with the JSON file's size and modification time.
+ * If the JSON file changed since (e.g. because it was edited by hand), the binary snapshot is considered stale and ignored.
+ * <p>
+ * Layout (big endian):
+ * <pre>
+ * int magic, int version, int kind, long jsonSize, long jsonLastModified
+ * int stringCount, int[stringCount] stringOffsets, int stringDataLength, string data (int byteLength + UTF-8 bytes each)
+ * int recordCount, records (int byteLength + payload each)
+ * </pre>
+ * IDs and names are stored once in the string table and referenced by index ({@code -1} for {@code null}), so a song ID used by several playlists is decoded into a single instance.
+ * Loading decodes the whole table in one pass, as every record is restored right away anyway. The offsets are not needed for that and are only kept to stay compatible with existing files.
+ */
+public class BinarySnapshot {
+    private static final int MAGIC = 0x4D504C42; // "MPLB"
+    private static final int VERSION = 1;
+    private static final int KIND_SONGS = 1;
+    private static final int KIND_PLAYLISTS = 2;
+
+    public static void writeSongs(File target, File json, Collection<Song> songs) throws IOException {
+        StringTableBuilder strings = new StringTableBuilder();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(records);
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream recordOut = new DataOutputStream(record);
+        for (Song song : songs) {
+            record.reset();
+            recordOut.writeInt(strings.indexOf(song.getId()));
+            recordOut.writeInt(strings.indexOf(song.getName()));
+            recordOut.writeInt(strings.indexOf(song.getYoutubeId()));
+            recordOut.writeLong(song.getListenCount());
+            recordOut.writeDouble(song.getVolumeAdjustment());
+            out.writeInt(record.size());
+            record.writeTo(out);
+        }
+        write(target, json, KIND_SONGS, strings, songs.size(), records);
+    }
+
+    public static void writePlaylists(File target, File json, Collection<Playlist> playlists) throws IOException {
+        StringTableBuilder strings = new StringTableBuilder();
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(records);
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream recordOut = new DataOutputStream(record);
+        for (Playlist playlist : playlists) {
+            record.reset();
+            recordOut.writeInt(strings.indexOf(playlist.getId()));
+            recordOut.writeInt(strings.indexOf(playlist.getName()));
+            recordOut.writeLong(playlist.getPlayedSongCount());
+            recordOut.writeLong((long) playlist.getPlayTime().toSeconds());
+            Set<String> songIds = playlist.getSongIds();
+            recordOut.writeInt(songIds.size());
+            for (String songId : songIds) {
+                recordOut.writeInt(strings.indexOf(songId));
+            }
+            out.writeInt(record.size());
+            record.writeTo(out);
+        }
+        write(target, json, KIND_PLAYLISTS, strings, playlists.size(), records);
+    }
+
+    /**
+     * @return The songs of the snapshot (keyed by ID, in snapshot order) or {@code null} if the snapshot is missing, stale or unreadable
+     */
+    public static @Nullable LinkedHashMap<String, Song> readSongs(File source, File json) {
+        Reader reader = open(source, json, KIND_SONGS);
+        if (reader == null) return null;
+        try {
+            int count = reader.buffer.getInt();
+            LinkedHashMap<String, Song> songs = new LinkedHashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                int end = reader.recordEnd();
+                String id = reader.string(reader.buffer.getInt());
+                String name = reader.string(reader.buffer.getInt());
+                String youtubeId = reader.string(reader.buffer.getInt());
+                long listenCount = reader.buffer.getLong();
+                double volumeAdjustment = reader.buffer.getDouble();
+                reader.buffer.position(end); // Skip fields appended by newer versions
+                songs.put(id, new Song(id, name, youtubeId, listenCount, volumeAdjustment));
+            }
+            return songs;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Ignoring corrupt binary snapshot '" + source.getName() + "': " + e);
+            return null;
+        }
+    }
+
+    /**
+     * @return The playlists of the snapshot (in snapshot order) or {@code null} if the snapshot is missing, stale or unreadable
+     */
+    public static @Nullable List<Playlist> readPlaylists(File source, File json) {
+        Reader reader = open(source, json, KIND_PLAYLISTS);
+        if (reader == null) return null;
+        try {
+            int count = reader.buffer.getInt();
+            List<Playlist> playlists = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int end = reader.recordEnd();
+                String id = reader.string(reader.buffer.getInt());
+                String name = reader.string(reader.buffer.getInt());
+                long playedSongCount = reader.buffer.getLong();
+                long secondsPlayed = reader.buffer.getLong();
+                int songCount = reader.buffer.getInt();
+                Set<String> songIds = new LinkedHashSet<>(songCount * 4 / 3 + 1);
+                for (int j = 0; j < songCount; j++) {
+                    songIds.add(reader.string(reader.buffer.getInt()));
+                }
+                reader.buffer.position(end);
+                playlists.add(new Playlist(id, name, songIds, playedSongCount, secondsPlayed));
+            }
+            return playlists;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Ignoring corrupt binary snapshot '" + source.getName() + "': " + e);
+            return null;
+        }
+    }
+
+    private static void write(File target, File json, int kind, StringTableBuilder strings, int recordCount, ByteArrayOutputStream records) throws IOException {
+        target.getParentFile().mkdirs();
+        File tempFile = new File(target.getAbsolutePath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(kind);
+            out.writeLong(json.length());
+            out.writeLong(json.lastModified());
+
+            List<byte[]> encoded = strings.encoded;
+            out.writeInt(encoded.size());
+            int offset = 0;
+            for (byte[] bytes : encoded) {
+                out.writeInt(offset);
+                offset += Integer.BYTES + bytes.length;
+            }
+            out.writeInt(offset);
+            for (byte[] bytes : encoded) {
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(recordCount);
+            records.writeTo(out);
+            out.flush();
+            fileOut.getFD().sync();
+            ConfigIO.countBytesWritten(out.size());
+        }
+        ConfigIO.moveIntoPlace(tempFile, target);
+    }
+
+    private static @Nullable Reader open(File source, File json, int kind) {
+        if (!source.exists() || !json.exists()) return null;
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // The mapping stays valid after the channel is closed
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != kind) {
+                System.err.println("Ignoring binary snapshot '" + source.getName() + "' of unknown format");
+                return null;
+            }
+            if (buffer.getLong() != json.length() || buffer.getLong() != json.lastModified()) {
+                System.out.println("Binary snapshot '" + source.getName() + "' is out of sync with '" + json.getName() + "'. Falling back to JSON");
+                return null;
+            }
+            return new Reader(buffer);
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) { // Also covers a corrupt string table
+            System.err.println("Unable to open binary snapshot '" + source.getName() + "': " + e);
+            return null;
+        }
+    }
+
+    private static class StringTableBuilder {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<byte[]> encoded = new ArrayList<>();
+
+        private int indexOf(@Nullable String string) {
+            if (string == null) return -1;
+            return indices.computeIfAbsent(string, s -> {
+                encoded.add(s.getBytes(StandardCharsets.UTF_8));
+                return encoded.size() - 1;
+            });
+        }
+    }
+
+    private static class Reader {
+        private final ByteBuffer buffer;
+        private final String[] strings;
+
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            int count = buffer.getInt();
+            buffer.position(buffer.position() + count * Integer.BYTES + Integer.BYTES); // Skip the offsets and the data length
+            strings = new String[count];
+            byte[] bytes = new byte[256];
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                if (length > bytes.length) bytes = new byte[Math.max(length, bytes.length * 2)];
+                buffer.get(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+        }
+
+        private int recordEnd() {
+            int length = buffer.getInt();
+            return buffer.position() + length;
+        }
+
+        private @Nullable String string(int index) {
+            return index < 0 ? null : strings[index];
+        }
+    }
+}
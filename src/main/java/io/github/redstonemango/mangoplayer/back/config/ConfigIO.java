@@ -0,0 +1,106 @@
+package io.github.redstonemango.mangoplayer.back.config;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streaming load and save of the JSON config snapshots.<br>
+ * Gson reads from and writes to a buffered file channel token by token, so neither loading nor saving builds the whole document as one String.
+ */
+public class ConfigIO {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String PRETTY_INDENT = "  ";
+
+    private static final AtomicLong savesSkipped = new AtomicLong(0);
+    private static final AtomicLong bytesWritten = new AtomicLong(0);
+
+    /**
+     * Deserializes a snapshot file.
+     * @return The deserialized object or {@code null} if the file does not exist or is empty
+     * @throws IOException If the file cannot be read
+     * @throws com.google.gson.JsonParseException If the file does not contain valid JSON
+     */
+    public static <T> @Nullable T readSnapshot(File source, Gson gson, Class<T> type) throws IOException {
+        return readSnapshot(source, gson, (Type) type);
+    }
+
+    /**
+     * Deserializes a snapshot file into a generic type (e.g. one created by a {@link com.google.gson.reflect.TypeToken}).
+     * @see #readSnapshot(File, Gson, Class)
+     */
+    public static <T> @Nullable T readSnapshot(File source, Gson gson, Type type) throws IOException {
+        if (!source.exists()) return null;
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+             JsonReader reader = new JsonReader(new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE))) {
+            return gson.fromJson(reader, type); // Gson returns 'null' for an empty document
+        }
+    }
+
+    /**
+     * Serializes an object into a temporary file next to the target and atomically replaces the target afterward.
+     * A crash while writing therefore never truncates the only copy of the data.
+     * @param pretty Whether to indent the output or write it as compact as possible
+     * @return The number of bytes written
+     */
+    public static long writeSnapshot(File target, Gson gson, Object src, boolean pretty) throws IOException {
+        target.getParentFile().mkdirs();
+        File tempFile = new File(target.getAbsolutePath() + ".tmp");
+        long size;
+        try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+            JsonWriter jsonWriter = new JsonWriter(writer);
+            jsonWriter.setIndent(pretty ? PRETTY_INDENT : "");
+            gson.toJson(src, src.getClass(), jsonWriter);
+            writer.write("\n");
+            jsonWriter.flush();
+            channel.force(true);
+            size = channel.size();
+        }
+        bytesWritten.addAndGet(size);
+        moveIntoPlace(tempFile, target);
+        return size;
+    }
+
+    static void moveIntoPlace(File tempFile, File target) throws IOException {
+        try {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static void countSkippedSave() {
+        savesSkipped.incrementAndGet();
+    }
+
+    public static void countBytesWritten(long bytes) {
+        bytesWritten.addAndGet(bytes);
+    }
+
+    /**
+     * @return The number of config saves that were skipped because nothing (or not enough) had changed since the last one
+     */
+    public static long getSavesSkipped() {
+        return savesSkipped.get();
+    }
+
+    /**
+     * @return The number of bytes written to snapshot and journal files since the application started
+     */
+    public static long getBytesWritten() {
+        return bytesWritten.get();
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.redstonemango.mangoplayer.back.config;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Append-only write-ahead journal sitting next to a JSON snapshot file (e.g. {@code songs.json} -> {@code songs.journal}).<br>
+ * Every mutation of the owning config is appended as one compact JSON record per line. On load, the journal is replayed on top of the snapshot.
+ * Compaction {@linkplain #rotate() rotates} the journal away, writes a fresh snapshot {@linkplain ConfigIO#writeSnapshot(File, Gson, Object, boolean) atomically} and only then {@linkplain #discardRotated() discards} the rotated records.
+ * Records are expected to be idempotent (absolute values instead of increments), so replaying them on top of a newer snapshot is harmless.
+ */
+public class ConfigJournal {
+    private final File file;
+    private final File rotatedFile;
+    private final String label;
+
+    private @Nullable Writer writer = null;
+    private int recordCount = 0;
+    private boolean replaying = false;
+
+    public ConfigJournal(String snapshotPath, String label) {
+        String basePath = snapshotPath.endsWith(".json") ? snapshotPath.substring(0, snapshotPath.length() - ".json".length()) : snapshotPath;
+        this.file = new File(basePath + ".journal");
+        this.rotatedFile = new File(basePath + ".journal.compacting");
+        this.label = label;
+    }
+
+    public synchronized void append(String id, String op, @Nullable JsonElement value) {
+        if (replaying) return; // Records applied during replay are already part of the journal
+        JsonObject record = new JsonObject();
+        record.addProperty("op", op);
+        record.addProperty("id", id);
+        if (value != null) record.add("value", value);
+        try {
+            if (writer == null) {
+                file.getParentFile().mkdirs();
+                writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            String line = record + "\n";
+            writer.write(line);
+            writer.flush();
+            recordCount++;
+            ConfigIO.countBytesWritten(line.getBytes(StandardCharsets.UTF_8).length);
+        } catch (IOException e) {
+            System.err.println("Unable to append to " + label + " journal: " + e);
+        }
+    }
+
+    /**
+     * Replays all records (first the ones of an interrupted compaction, then the current ones) in the order they were written.
+     * Records appended while replaying are ignored. Unreadable lines (e.g. a line torn by a crash) are skipped.
+     * @param handler The consumer applying a single record to the loaded config.
+     */
+    public synchronized void replay(Consumer<JsonObject> handler) {
+        replaying = true;
+        try {
+            int replayed = replayFile(rotatedFile, handler) + replayFile(file, handler);
+            recordCount = replayed;
+            if (replayed > 0) {
+                System.out.println("Replayed " + replayed + " " + label + " journal records");
+            }
+        } finally {
+            replaying = false;
+        }
+    }
+
+    private int replayFile(File source, Consumer<JsonObject> handler) {
+        if (!source.exists()) return 0;
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(source.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    handler.accept(JsonParser.parseString(line).getAsJsonObject());
+                    count++;
+                } catch (JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+                    System.err.println("Skipping unreadable " + label + " journal record '" + line + "': " + e);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to replay " + label + " journal '" + source.getName() + "': " + e);
+        }
+        return count;
+    }
+
+    /**
+     * Moves the current records aside so a snapshot can be written while new records keep being appended to a fresh journal.
+     * If a previous compaction was interrupted, the current records are appended to the already rotated ones to keep their order.
+     */
+    public synchronized void rotate() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        if (file.exists()) {
+            if (rotatedFile.exists()) {
+                Files.write(rotatedFile.toPath(), Files.readAllBytes(file.toPath()), StandardOpenOption.APPEND);
+                Files.delete(file.toPath());
+            }
+            else {
+                Files.move(file.toPath(), rotatedFile.toPath());
+            }
+        }
+        recordCount = 0;
+    }
+
+    /**
+     * Drops the rotated records. Only call this after the snapshot containing them has been {@linkplain ConfigIO#writeSnapshot(File, Gson, Object, boolean) written}.
+     */
+    public synchronized void discardRotated() throws IOException {
+        Files.deleteIfExists(rotatedFile.toPath());
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+}
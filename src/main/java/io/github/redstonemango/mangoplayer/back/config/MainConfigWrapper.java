@@ -1,7 +1,7 @@
 package io.github.redstonemango.mangoplayer.back.config;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import io.github.redstonemango.mangoplayer.front.MangoPlayer;
 import io.github.redstonemango.mangoplayer.back.Finals;
 import io.github.redstonemango.mangoplayer.back.GlobalMenuBarActions;
@@ -11,8 +11,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
 
 public class MainConfigWrapper {
@@ -20,6 +20,7 @@ public class MainConfigWrapper {
 
     public static final String configFilePath = MangoPlayer.APP_FOLDER_PATH + "/mainConfiguration.json";
     public static boolean loadError = false;
+    private static volatile boolean dirty = false;
 
     public WindowData windowData;
     public WindowPosition detachedControlPosition;
@@ -31,6 +32,12 @@ public class MainConfigWrapper {
     public boolean isSongControlExpanded;
     public boolean isMuted;
     public double volume;
+    public boolean compactConfigFiles; // Write config files without indentation. Smaller and faster for large libraries, but harder to edit by hand
+    public boolean useBinarySnapshot; // Additionally keep binary copies of the song and playlist configs, which load a lot faster than JSON for large libraries
+    public int thumbnailCacheMegabytes; // Memory budget for decoded thumbnails, see ThumbnailCache
+    public boolean thumbnailVariantsGenerated; // Whether the thumbnails stored before ThumbnailVariants existed were migrated
+    public double crossfadeSeconds; // Overlap in which a song fades out while the next one fades in. 0 plays songs one after another
+    public int playbackClockIntervalMillis; // Minimum time between two position updates of the player views. 0 updates them on every frame
 
     public static final int LOOP_TYPE_NONE = 0;
     public static final int LOOP_TYPE_ALL = 1;
@@ -40,44 +47,66 @@ public class MainConfigWrapper {
         if (INSTANCE == null) {
             MainConfigWrapper wrapper = tryReadFile();
             INSTANCE = Objects.requireNonNullElseGet(wrapper, MainConfigWrapper::new);
+            if (wrapper == null) dirty = true; // Write the defaults on first launch
             INSTANCE.ensureFields();
         }
         return INSTANCE;
     }
 
-    public static synchronized void save() {
+    /**
+     * Captures the main config on the FX thread (including the current window geometry) as a small JSON tree.
+     * @return The task writing the captured state, which may run on any thread, or {@code null} if there is nothing to save
+     */
+    public static synchronized @Nullable Runnable snapshot() {
         if (loadError) {
             System.out.println("Not saving main config due to an error during its I/O load!"); // Do not save (i.e. possibly overwrite) the config file if loading failed
-            return;
+            return null;
         }
-        System.out.println("Saving main config...");
 
         if (MangoPlayer.primaryStage != null) {
-            INSTANCE.windowData.x = MangoPlayer.primaryStage.getX();
-            INSTANCE.windowData.y = MangoPlayer.primaryStage.getY();
-            INSTANCE.windowData.width = MangoPlayer.primaryStage.getWidth();
-            INSTANCE.windowData.height = MangoPlayer.primaryStage.getHeight();
-        }
-        File file = new File(configFilePath);
-        try {
-            if (!file.exists()) {
-                file.getParentFile().mkdirs();
-            }
-            try (FileWriter writer = new FileWriter(file)) {
-                writer.write(new GsonBuilder().setPrettyPrinting().create().toJson(INSTANCE) + "\n");
+            WindowData windowData = INSTANCE.windowData;
+            if (windowData.x != MangoPlayer.primaryStage.getX() || windowData.y != MangoPlayer.primaryStage.getY() ||
+                    windowData.width != MangoPlayer.primaryStage.getWidth() || windowData.height != MangoPlayer.primaryStage.getHeight()) {
+                windowData.x = MangoPlayer.primaryStage.getX();
+                windowData.y = MangoPlayer.primaryStage.getY();
+                windowData.width = MangoPlayer.primaryStage.getWidth();
+                windowData.height = MangoPlayer.primaryStage.getHeight();
+                dirty = true;
             }
-        } catch (IOException e) {
-            System.err.println("Unable to save MainConfigWrapper: " + e);
         }
+        if (!dirty) {
+            System.out.println("Main config is unchanged. Skipping save");
+            ConfigIO.countSkippedSave();
+            return null;
+        }
+
+        Gson gson = new Gson();
+        JsonElement captured = gson.toJsonTree(INSTANCE);
+        boolean pretty = !INSTANCE.compactConfigFiles;
+        dirty = false; // Cleared on capture, so changes made while the file is written mark the config dirty again
+
+        return () -> {
+            System.out.println("Saving main config...");
+            try {
+                ConfigIO.writeSnapshot(new File(configFilePath), gson, captured, pretty);
+            } catch (IOException e) {
+                dirty = true;
+                System.err.println("Unable to save MainConfigWrapper: " + e);
+            }
+        };
+    }
+
+    /**
+     * Marks the main config as changed, so the next save writes it. Call this after modifying any of its fields.
+     */
+    public static void markDirty() {
+        dirty = true;
     }
 
     private static synchronized @Nullable MainConfigWrapper tryReadFile() {
-        File file = new File(configFilePath);
-        if (!file.exists()) return null;
-        try (Scanner scanner = new Scanner(file).useDelimiter("\\Z")) {
-            if (!scanner.hasNext()) return null;
-            return new Gson().fromJson(scanner.next(), MainConfigWrapper.class);
-        } catch (FileNotFoundException e) {
+        try {
+            return ConfigIO.readSnapshot(new File(configFilePath), new Gson(), MainConfigWrapper.class);
+        } catch (FileNotFoundException | NoSuchFileException e) {
             return null;
         }
         catch (Exception e) {
@@ -122,6 +151,12 @@ public class MainConfigWrapper {
         }
 
         volume = Math.clamp(volume, 0.01, 1.0);
+        crossfadeSeconds = Math.clamp(crossfadeSeconds, 0, 30);
+        playbackClockIntervalMillis = Math.clamp(playbackClockIntervalMillis, 0, 1000);
+
+        if (thumbnailCacheMegabytes <= 0) {
+            thumbnailCacheMegabytes = 64;
+        }
 
         if (!(loopType == LOOP_TYPE_NONE ||
                 loopType == LOOP_TYPE_ALL ||
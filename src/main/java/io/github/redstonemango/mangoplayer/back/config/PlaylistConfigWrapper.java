@@ -1,68 +1,249 @@
 package io.github.redstonemango.mangoplayer.back.config;
 
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.annotations.Expose;
 import io.github.redstonemango.mangoplayer.front.MangoPlayer;
 import io.github.redstonemango.mangoplayer.back.Finals;
 import io.github.redstonemango.mangoplayer.back.GlobalMenuBarActions;
 import io.github.redstonemango.mangoplayer.back.Playlist;
+import io.github.redstonemango.mangoplayer.back.SongUsageIndex;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Scanner;
 
 public class PlaylistConfigWrapper {
     private static PlaylistConfigWrapper INSTANCE = null;
 
     public static final String configFilePath = MangoPlayer.APP_FOLDER_PATH + "/playlists.json";
+    public static final String binaryFilePath = MangoPlayer.APP_FOLDER_PATH + "/playlists.bin";
     public static boolean loadError = false;
 
-    public @Expose List<Playlist> playlists;
+    /** Number of journal records after which a non-forced {@link #snapshot(boolean)} compacts the journal into the snapshot */
+    public static final int JOURNAL_COMPACTION_THRESHOLD = 500;
+    private static volatile boolean dirty = false;
+    private static volatile boolean writing = false;
+    private static final ConfigJournal journal = new ConfigJournal(configFilePath, "playlist");
+    private static final Gson EXPOSE_GSON = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
+
+    /** Copy-on-write: Never modify this list in place, but use {@link #addPlaylist(Playlist)}, {@link #removePlaylist(Playlist)} or {@link #movePlaylistToTop(Playlist)} */
+    public @Expose volatile List<Playlist> playlists;
 
     public static synchronized PlaylistConfigWrapper loadConfig() {
         if (INSTANCE == null) {
-            PlaylistConfigWrapper wrapper = tryReadFile();
+            boolean useBinary = MainConfigWrapper.loadConfig().useBinarySnapshot;
+            long loadStart = System.nanoTime();
+            PlaylistConfigWrapper wrapper = useBinary ? tryReadBinary() : null;
+            boolean fromBinary = wrapper != null;
+            if (wrapper == null) wrapper = tryReadFile();
             INSTANCE = Objects.requireNonNullElseGet(wrapper, PlaylistConfigWrapper::new);
             INSTANCE.ensureFields();
+            System.out.println("Loaded playlist config from " + (fromBinary ? "binary snapshot" : "JSON") + " in " + (System.nanoTime() - loadStart) / 1_000_000 + " ms");
+            if (fromBinary && Boolean.getBoolean("mangoplayer.compareSnapshotLoad")) {
+                long jsonStart = System.nanoTime();
+                PlaylistConfigWrapper jsonWrapper = tryReadFile();
+                if (jsonWrapper != null) jsonWrapper.ensureFields();
+                System.out.println("Loading the same playlist config from JSON took " + (System.nanoTime() - jsonStart) / 1_000_000 + " ms");
+            }
+            if (!loadError) {
+                if (useBinary && !fromBinary) writeBinary(INSTANCE); // Create or refresh the binary snapshot (before replaying the journal, as it has to match the JSON file)
+                journal.replay(INSTANCE::applyJournalRecord);
+                if (journal.getRecordCount() > 0) dirty = true; // Replayed records are not part of the snapshot yet
+            }
         }
         return INSTANCE;
     }
 
-    public static synchronized void save() {
+    /**
+     * Prepares compacting the journal into a fresh {@code playlists.json} snapshot. Has to be called on the FX thread.<br>
+     * Only the copy-on-write {@link #playlists} and each playlist's song ID set are captured and the journal is rotated at the same moment, so this runs in O(number of playlists).
+     * The returned task may then serialize the captured state on any thread. Changes made after the capture are part of the new journal and get replayed on top of the snapshot, which keeps the result correct even if the serializer already sees some of them.
+     * @param force Whether to compact even if the journal is still below {@link #JOURNAL_COMPACTION_THRESHOLD}. All changes are already durable in the journal either way.
+     * @return The task writing the snapshot or {@code null} if there is nothing to save
+     */
+    public static synchronized @Nullable Runnable snapshot(boolean force) {
         if (loadError) {
             System.out.println("Not saving playlist config due to an error during its I/O load!"); // Do not save (i.e. possibly overwrite) the config file if loading failed
-            return;
+            return null;
+        }
+        if (writing) {
+            System.out.println("Previous playlist config save is still in progress. Skipping save");
+            ConfigIO.countSkippedSave();
+            return null;
+        }
+        if (!dirty) {
+            System.out.println("Playlist config is unchanged. Skipping save");
+            ConfigIO.countSkippedSave();
+            return null;
+        }
+        if (!force && journal.getRecordCount() < JOURNAL_COMPACTION_THRESHOLD) {
+            System.out.println("Playlist journal holds " + journal.getRecordCount() + " records. Skipping compaction");
+            ConfigIO.countSkippedSave();
+            return null;
         }
-        System.out.println("Saving playlist config...");
 
-        File file = new File(configFilePath);
         try {
-            if (!file.exists()) {
-                file.getParentFile().mkdirs();
+            journal.rotate();
+        } catch (IOException e) {
+            System.err.println("Unable to rotate playlist journal: " + e);
+            return null;
+        }
+        PlaylistConfigWrapper wrapper = new PlaylistConfigWrapper();
+        List<Playlist> playlists = INSTANCE.playlists;
+        wrapper.playlists = new ArrayList<>(playlists.size());
+        playlists.forEach(playlist -> wrapper.playlists.add(playlist.captureForSnapshot())); // Playlists change their song IDs in place until they are captured
+        boolean pretty = !MainConfigWrapper.loadConfig().compactConfigFiles;
+        boolean useBinary = MainConfigWrapper.loadConfig().useBinarySnapshot;
+        dirty = false; // Cleared on capture, so changes made while the snapshot is written mark the config dirty again
+        writing = true;
+
+        return () -> {
+            System.out.println("Saving playlist config...");
+            try {
+                ConfigIO.writeSnapshot(new File(configFilePath), EXPOSE_GSON, wrapper, pretty);
+                if (useBinary) {
+                    writeBinary(wrapper);
+                }
+                else {
+                    Files.deleteIfExists(Path.of(binaryFilePath)); // A binary snapshot that is not updated anymore must not be picked up later
+                }
+                journal.discardRotated();
+            } catch (IOException | RuntimeException e) {
+                dirty = true;
+                System.err.println("Unable to save PlaylistConfigWrapper: " + e);
+            } finally {
+                writing = false;
             }
-            try (FileWriter writer = new FileWriter(file)) {
-                writer.write(new GsonBuilder().setPrettyPrinting().excludeFieldsWithoutExposeAnnotation().create().toJson(INSTANCE) + "\n");
+        };
+    }
+
+    /**
+     * Marks the config as changed without journaling anything, e.g. after repairing fields while loading. The next save then writes a fresh snapshot.
+     */
+    public static void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Appends a change of a single playlist to the playlist journal.
+     * @param playlistId The ID of the changed playlist
+     * @param op The operation. Wrapper-level operations are {@code add}, {@code remove} and {@code moveToTop}, all others are applied by {@link Playlist#applyJournalRecord(String, JsonElement)}
+     * @param value The new value or {@code null} if the operation does not need one
+     */
+    public static void record(String playlistId, String op, @Nullable JsonElement value) {
+        if (loadError) return;
+        dirty = true;
+        journal.append(playlistId, op, value);
+    }
+
+    /**
+     * Adds an already {@linkplain Playlist#ensureFields() initialized} playlist to the top of the list.
+     */
+    public synchronized void addPlaylist(Playlist playlist) {
+        List<Playlist> updated = new ArrayList<>(playlists.size() + 1);
+        updated.add(playlist);
+        updated.addAll(playlists);
+        playlists = updated;
+        SongUsageIndex.playlistAdded(playlist);
+        record(playlist.getId(), "add", EXPOSE_GSON.toJsonTree(playlist));
+    }
+
+    public synchronized void removePlaylist(Playlist playlist) {
+        List<Playlist> updated = new ArrayList<>(playlists);
+        updated.remove(playlist);
+        playlists = updated;
+        SongUsageIndex.playlistRemoved(playlist);
+        record(playlist.getId(), "remove", null);
+    }
+
+    public synchronized void movePlaylistToTop(Playlist playlist) {
+        if (playlists.getFirst().equals(playlist)) return;
+        List<Playlist> updated = new ArrayList<>(playlists);
+        updated.remove(playlist);
+        updated.addFirst(playlist);
+        playlists = updated;
+        record(playlist.getId(), "moveToTop", null);
+    }
+
+    private void applyJournalRecord(JsonObject record) {
+        String op = record.get("op").getAsString();
+        String id = record.get("id").getAsString();
+        JsonElement value = record.get("value");
+        switch (op) {
+            case "add" -> {
+                removePlaylistById(id);
+                Playlist playlist = EXPOSE_GSON.fromJson(value, Playlist.class);
+                playlist.ensureFields();
+                playlists.addFirst(playlist);
+                SongUsageIndex.playlistAdded(playlist);
             }
+            case "remove" -> removePlaylistById(id);
+            case "moveToTop" -> {
+                Playlist playlist = playlistFromId(id);
+                if (playlist != null) {
+                    playlists.remove(playlist);
+                    playlists.addFirst(playlist);
+                }
+            }
+            default -> {
+                Playlist playlist = playlistFromId(id);
+                if (playlist == null) {
+                    System.err.println("Skipping playlist journal record '" + op + "' for unknown playlist '" + id + "'");
+                    return;
+                }
+                playlist.applyJournalRecord(op, value);
+            }
+        }
+    }
+
+    private void removePlaylistById(String id) {
+        Playlist playlist = playlistFromId(id);
+        if (playlist != null) {
+            playlists.remove(playlist);
+            SongUsageIndex.playlistRemoved(playlist);
+        }
+    }
+
+    private @Nullable Playlist playlistFromId(String id) {
+        for (Playlist playlist : playlists) {
+            if (playlist.getId().equals(id)) return playlist;
+        }
+        return null;
+    }
+
+    private static @Nullable PlaylistConfigWrapper tryReadBinary() {
+        List<Playlist> playlists = BinarySnapshot.readPlaylists(new File(binaryFilePath), new File(configFilePath));
+        if (playlists == null) return null;
+        PlaylistConfigWrapper wrapper = new PlaylistConfigWrapper();
+        wrapper.playlists = playlists;
+        return wrapper;
+    }
+
+    private static void writeBinary(PlaylistConfigWrapper wrapper) {
+        if (!new File(configFilePath).exists()) return;
+        try {
+            BinarySnapshot.writePlaylists(new File(binaryFilePath), new File(configFilePath), wrapper.playlists);
         } catch (IOException e) {
-            System.err.println("Unable to save PlaylistConfigWrapper: " + e);
+            System.err.println("Unable to write binary playlist snapshot: " + e);
         }
     }
 
     private static synchronized @Nullable PlaylistConfigWrapper tryReadFile() {
-        File file = new File(configFilePath);
-        if (!file.exists()) return null;
-        try (Scanner scanner = new Scanner(file).useDelimiter("\\Z")) {
-            if (!scanner.hasNext()) return null;
-            return new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create().fromJson(scanner.next(), PlaylistConfigWrapper.class);
-        } catch (FileNotFoundException e) {
+        try {
+            return ConfigIO.readSnapshot(new File(configFilePath), EXPOSE_GSON, PlaylistConfigWrapper.class);
+        } catch (FileNotFoundException | NoSuchFileException e) {
             return null;
         }
         catch (Exception e) {
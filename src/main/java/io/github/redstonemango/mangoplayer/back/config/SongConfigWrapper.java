@@ -1,65 +1,226 @@
 package io.github.redstonemango.mangoplayer.back.config;
 
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.annotations.Expose;
 import io.github.redstonemango.mangoplayer.front.MangoPlayer;
 import io.github.redstonemango.mangoplayer.back.Finals;
 import io.github.redstonemango.mangoplayer.back.GlobalMenuBarActions;
 import io.github.redstonemango.mangoplayer.back.Song;
+import io.github.redstonemango.mangoplayer.back.SongSearchIndex;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.*;
 
 public class SongConfigWrapper {
     private static SongConfigWrapper INSTANCE = null;
 
     public static final String configFilePath = MangoPlayer.APP_FOLDER_PATH + "/songs.json";
+    public static final String binaryFilePath = MangoPlayer.APP_FOLDER_PATH + "/songs.bin";
     public static boolean loadError = false;
 
-    @Expose public LinkedHashMap<String, Song> songs;
+    /** Number of journal records after which a non-forced {@link #snapshot(boolean)} compacts the journal into the snapshot */
+    public static final int JOURNAL_COMPACTION_THRESHOLD = 500;
+    private static volatile boolean dirty = false;
+    private static volatile boolean writing = false;
+    private static final ConfigJournal journal = new ConfigJournal(configFilePath, "song");
+    private static final Gson EXPOSE_GSON = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
+
+    /** Copy-on-capture: Never modify this map from outside, but use {@link #putSong(Song)}, {@link #removeSong(Song)} or replace it as a whole. Iterate it off the FX thread only via {@link #captureSongs()} */
+    @Expose public volatile LinkedHashMap<String, Song> songs;
+    private boolean songsCaptured = false; // Whether someone may still read the current map, so the next change has to copy it first
 
     public static synchronized SongConfigWrapper loadConfig() {
         if (INSTANCE == null) {
-            SongConfigWrapper wrapper = tryReadFile();
+            boolean useBinary = MainConfigWrapper.loadConfig().useBinarySnapshot;
+            long loadStart = System.nanoTime();
+            SongConfigWrapper wrapper = useBinary ? tryReadBinary() : null;
+            boolean fromBinary = wrapper != null;
+            if (wrapper == null) wrapper = tryReadFile();
             INSTANCE = Objects.requireNonNullElseGet(wrapper, SongConfigWrapper::new);
             INSTANCE.ensureFields();
+            System.out.println("Loaded song config from " + (fromBinary ? "binary snapshot" : "JSON") + " in " + (System.nanoTime() - loadStart) / 1_000_000 + " ms");
+            if (fromBinary && Boolean.getBoolean("mangoplayer.compareSnapshotLoad")) {
+                long jsonStart = System.nanoTime();
+                SongConfigWrapper jsonWrapper = tryReadFile();
+                if (jsonWrapper != null) jsonWrapper.ensureFields();
+                System.out.println("Loading the same song config from JSON took " + (System.nanoTime() - jsonStart) / 1_000_000 + " ms");
+            }
+            if (!loadError) {
+                if (useBinary && !fromBinary) writeBinary(INSTANCE); // Create or refresh the binary snapshot (before replaying the journal, as it has to match the JSON file)
+                journal.replay(INSTANCE::applyJournalRecord);
+                if (journal.getRecordCount() > 0) dirty = true; // Replayed records are not part of the snapshot yet
+            }
         }
         return INSTANCE;
     }
 
-    public static synchronized void save() {
+    /**
+     * Prepares compacting the journal into a fresh {@code songs.json} snapshot. Has to be called on the FX thread.<br>
+     * Only the reference to the copy-on-write {@link #songs} is captured and the journal is rotated at the same moment, so this runs in O(1).
+     * The returned task may then serialize the captured state on any thread. Changes made after the capture are part of the new journal and get replayed on top of the snapshot, which keeps the result correct even if the serializer already sees some of them.
+     * @param force Whether to compact even if the journal is still below {@link #JOURNAL_COMPACTION_THRESHOLD}. All changes are already durable in the journal either way.
+     * @return The task writing the snapshot or {@code null} if there is nothing to save
+     */
+    public static synchronized @Nullable Runnable snapshot(boolean force) {
         if (loadError) {
             System.out.println("Not saving song config due to an error during its I/O load!"); // Do not save (i.e. possibly overwrite) the config file if loading failed
-            return;
+            return null;
+        }
+        if (writing) {
+            System.out.println("Previous song config save is still in progress. Skipping save");
+            ConfigIO.countSkippedSave();
+            return null;
+        }
+        if (!dirty) {
+            System.out.println("Song config is unchanged. Skipping save");
+            ConfigIO.countSkippedSave();
+            return null;
+        }
+        if (!force && journal.getRecordCount() < JOURNAL_COMPACTION_THRESHOLD) {
+            System.out.println("Song journal holds " + journal.getRecordCount() + " records. Skipping compaction");
+            ConfigIO.countSkippedSave();
+            return null;
         }
-        System.out.println("Saving song config...");
 
-        File file = new File(configFilePath);
         try {
-            if (!file.exists()) {
-                file.getParentFile().mkdirs();
+            journal.rotate();
+        } catch (IOException e) {
+            System.err.println("Unable to rotate song journal: " + e);
+            return null;
+        }
+        SongConfigWrapper wrapper = new SongConfigWrapper();
+        wrapper.songs = INSTANCE.captureSongs();
+        boolean pretty = !MainConfigWrapper.loadConfig().compactConfigFiles;
+        boolean useBinary = MainConfigWrapper.loadConfig().useBinarySnapshot;
+        dirty = false; // Cleared on capture, so changes made while the snapshot is written mark the config dirty again
+        writing = true;
+
+        return () -> {
+            System.out.println("Saving song config...");
+            try {
+                ConfigIO.writeSnapshot(new File(configFilePath), EXPOSE_GSON, wrapper, pretty);
+                if (useBinary) {
+                    writeBinary(wrapper);
+                }
+                else {
+                    Files.deleteIfExists(Path.of(binaryFilePath)); // A binary snapshot that is not updated anymore must not be picked up later
+                }
+                journal.discardRotated();
+            } catch (IOException | RuntimeException e) {
+                dirty = true;
+                System.err.println("Unable to save SongConfigWrapper: " + e);
+            } finally {
+                writing = false;
+            }
+        };
+    }
+
+    /**
+     * Marks the config as changed without journaling anything, e.g. after repairing fields while loading. The next save then writes a fresh snapshot.
+     */
+    public static void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Appends a change of a single song to the song journal.
+     * @param songId The ID of the changed song
+     * @param op The operation. Wrapper-level operations are {@code put} and {@code remove}, all others are applied by {@link Song#applyJournalRecord(String, JsonElement)}
+     * @param value The new value or {@code null} if the operation does not need one
+     */
+    public static void record(String songId, String op, @Nullable JsonElement value) {
+        if (loadError) return;
+        dirty = true;
+        journal.append(songId, op, value);
+    }
+
+    /**
+     * Hands out the current song map for reading on any thread, e.g. for serializing it. Runs in O(1): The map is not copied here, but by the next change.
+     * @return The song map, which is never modified afterward
+     */
+    public synchronized LinkedHashMap<String, Song> captureSongs() {
+        songsCaptured = true;
+        return songs;
+    }
+
+    public void putSong(Song song) {
+        synchronized (this) {
+            ensureSongsWritable();
+            songs.put(song.getId(), song);
+            record(song.getId(), "put", EXPOSE_GSON.toJsonTree(song));
+        }
+        SongSearchIndex.songPut(song); // Outside the lock, as searching captures the songs while holding the index's lock
+    }
+
+    public void removeSong(Song song) {
+        synchronized (this) {
+            ensureSongsWritable();
+            songs.remove(song.getId());
+            record(song.getId(), "remove", null);
+        }
+        SongSearchIndex.songRemoved(song.getId());
+    }
+
+    private void ensureSongsWritable() {
+        if (!songsCaptured) return; // Nobody else holds the map, so it can be changed in place. This keeps bulk imports at O(1) per song
+        songs = new LinkedHashMap<>(songs);
+        songsCaptured = false;
+    }
+
+    private void applyJournalRecord(JsonObject record) {
+        String op = record.get("op").getAsString();
+        String id = record.get("id").getAsString();
+        JsonElement value = record.get("value");
+        switch (op) {
+            case "put" -> {
+                Song song = EXPOSE_GSON.fromJson(value, Song.class);
+                song.ensureFields(id);
+                songs.put(id, song);
             }
-            try (FileWriter writer = new FileWriter(file)) {
-                writer.write(new GsonBuilder().setPrettyPrinting().excludeFieldsWithoutExposeAnnotation().create().toJson(INSTANCE) + "\n");
+            case "remove" -> songs.remove(id);
+            default -> {
+                Song song = songs.get(id);
+                if (song == null) {
+                    System.err.println("Skipping song journal record '" + op + "' for unknown song '" + id + "'");
+                    return;
+                }
+                song.applyJournalRecord(op, value);
             }
+        }
+    }
+
+    private static @Nullable SongConfigWrapper tryReadBinary() {
+        LinkedHashMap<String, Song> songs = BinarySnapshot.readSongs(new File(binaryFilePath), new File(configFilePath));
+        if (songs == null) return null;
+        SongConfigWrapper wrapper = new SongConfigWrapper();
+        wrapper.songs = songs;
+        return wrapper;
+    }
+
+    private static void writeBinary(SongConfigWrapper wrapper) {
+        if (!new File(configFilePath).exists()) return;
+        try {
+            BinarySnapshot.writeSongs(new File(binaryFilePath), new File(configFilePath), wrapper.songs.values());
         } catch (IOException e) {
-            System.err.println("Unable to save SongConfigWrapper: " + e);
+            System.err.println("Unable to write binary song snapshot: " + e);
         }
     }
 
     private static synchronized @Nullable SongConfigWrapper tryReadFile() {
-        File file = new File(configFilePath);
-        if (!file.exists()) return null;
-        try (Scanner scanner = new Scanner(file).useDelimiter("\\Z")) {
-            if (!scanner.hasNext()) return null;
-            return new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create().fromJson(scanner.next(), SongConfigWrapper.class);
-        } catch (FileNotFoundException e) {
+        try {
+            return ConfigIO.readSnapshot(new File(configFilePath), EXPOSE_GSON, SongConfigWrapper.class);
+        } catch (FileNotFoundException | NoSuchFileException e) {
             return null;
         } catch (Exception e) {
             loadError = true;
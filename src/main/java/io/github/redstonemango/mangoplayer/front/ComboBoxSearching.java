@@ -2,7 +2,9 @@ package io.github.redstonemango.mangoplayer.front;
 
 import javafx.application.Platform;
 import javafx.beans.property.*;
+import io.github.redstonemango.mangoplayer.back.SongSearchIndex;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.event.EventHandler;
 import javafx.scene.control.ComboBox;
@@ -13,9 +15,10 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.IdentityHashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Utility class that enhances a JavaFX {@link ComboBox} with live filtering/searching
@@ -31,6 +34,18 @@ public class ComboBoxSearching {
      * {@link TypedObjects} data, allowing the tracking of original options and selected item.
      */
     private static final Map<ComboBox<?>, TypedObjects<?>> optionsMap = new IdentityHashMap<>();
+    /**
+     * Executor filtering the options of all ComboBoxes, so typing never waits for a scan over the whole option list.
+     */
+    private static final ExecutorService filterExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MangoPlayer-ComboBoxSearching");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Number of options after which a running filter checks whether it was cancelled by a newer keystroke.
+     */
+    private static final int CANCELLATION_CHECK_INTERVAL = 4096;
 
     /**
      * Applies search and filtering behavior to the given {@link ComboBox}.
@@ -43,6 +58,8 @@ public class ComboBoxSearching {
         ObservableList<T> data = comboBox.getItems();
         ObjectProperty<T> selection = new SimpleObjectProperty<>();
         optionsMap.put(comboBox, new TypedObjects<>(data, selection, type));
+        SearchState<T> searchState = new SearchState<>();
+        data.addListener((ListChangeListener<T>) _ -> searchState.optionsVersion++);
 
         comboBox.setEditable(false);
         comboBox.setFocusTraversable(false);
@@ -106,22 +123,33 @@ public class ComboBoxSearching {
                     return;
                 }
 
-                ObservableList<T> list = FXCollections.observableArrayList();
-                for (T aData : data) {
-                    if (aData != null && comboBox.getEditor().getText() != null &&
-                            aData.matches(comboBox.getEditor().getText())) {
-                        list.add(aData);
-                    }
-                }
-
                 String t = comboBox.getEditor().getText() != null ? comboBox.getEditor().getText() : "";
-
-                comboBox.setItems(list);
-                comboBox.getEditor().setText(t);
                 if (!moveCaretToPos) {
                     caretPos = -1;
                 }
-                moveCaret(t.length());
+                int requestedCaretPos = caretPos;
+                moveCaretToPos = false;
+
+                if (searchState.pendingFilter != null) searchState.pendingFilter.cancel(true); // Outdated by this keystroke
+                int generation = ++searchState.generation;
+                int optionsVersion = searchState.optionsVersion;
+                SearchSnapshot<T> snapshot = searchState.snapshot;
+                List<T> options = snapshot != null && snapshot.optionsVersion() == optionsVersion ? null : new ArrayList<>(data); // Only copied when the keys need to be rebuilt
+                searchState.pendingFilter = filterExecutor.submit(() -> {
+                    SearchSnapshot<T> searched = options == null ? snapshot : SearchSnapshot.of(options, optionsVersion);
+                    if (searched == null) return; // Cancelled while building the keys
+                    List<T> matches = searched.filter(SongSearchIndex.normalize(t));
+                    if (matches == null) return;
+                    Platform.runLater(() -> {
+                        if (generation != searchState.generation) return; // A newer keystroke is being filtered already
+                        if (!t.equals(comboBox.getEditor().getText())) return; // Typed further before the key was released. That release filters again, so never overwrite the newer text
+                        if (searchState.optionsVersion == searched.optionsVersion()) searchState.snapshot = searched;
+                        comboBox.setItems(FXCollections.observableArrayList(matches));
+                        comboBox.getEditor().setText(t);
+                        caretPos = requestedCaretPos;
+                        moveCaret(t.length());
+                    });
+                });
             }
 
             private void moveCaret(int textLength) {
@@ -223,12 +251,60 @@ public class ComboBoxSearching {
     public interface ISearchComparable {
 
         /**
-         * Checks if the current item matches the given typed text.
+         * Gets the text the user's input is searched in. It is read once per item whenever the options change
+         * and matched in its {@linkplain SongSearchIndex#normalize(String) normalized} form.
          *
-         * @param typedText the text entered by the user
-         * @return {@code true} if this item matches the text; {@code false} otherwise
+         * @return the searchable text of this item
+         */
+        String searchText();
+    }
+
+    /**
+     * Internal search state of a single ComboBox. Only accessed on the FX thread.
+     *
+     * @param <T> the type of item stored in the ComboBox
+     */
+    private static class SearchState<T extends ISearchComparable> {
+        private int optionsVersion = 0;
+        private int generation = 0;
+        private @Nullable SearchSnapshot<T> snapshot = null;
+        private @Nullable Future<?> pendingFilter = null;
+    }
+
+    /**
+     * Immutable copy of a ComboBox's options together with their normalized search keys.
+     *
+     * @param <T> the type of item stored in the ComboBox
+     * @param items          the options
+     * @param keys           the normalized search key of each option, or {@code null} for {@code null} options
+     * @param optionsVersion the version of the options this copy was made of
+     */
+    record SearchSnapshot<T extends ISearchComparable>(List<T> items, @Nullable String[] keys, int optionsVersion) {
+
+        /**
+         * @return the snapshot or {@code null} if the thread was interrupted while building the keys
+         */
+        static <T extends ISearchComparable> @Nullable SearchSnapshot<T> of(List<T> items, int optionsVersion) {
+            String[] keys = new String[items.size()];
+            for (int i = 0; i < keys.length; i++) {
+                if (i % CANCELLATION_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) return null;
+                T item = items.get(i);
+                keys[i] = item == null ? null : SongSearchIndex.normalize(item.searchText());
+            }
+            return new SearchSnapshot<>(items, keys, optionsVersion);
+        }
+
+        /**
+         * @return the options whose key contains the normalized text, or {@code null} if the thread was interrupted while filtering
          */
-        boolean matches(String typedText);
+        @Nullable List<T> filter(String normalizedText) {
+            List<T> matches = new ArrayList<>();
+            for (int i = 0; i < keys.length; i++) {
+                if (i % CANCELLATION_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) return null;
+                if (keys[i] != null && keys[i].contains(normalizedText)) matches.add(items.get(i));
+            }
+            return matches;
+        }
     }
 
     /**
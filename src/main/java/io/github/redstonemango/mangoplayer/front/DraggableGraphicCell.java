@@ -234,10 +234,12 @@ public class DraggableGraphicCell<T> extends ListCell<T> {
                 }
 
                 if (draggedIdx >= 0 && thisIdx >= 0) {
-                    items.remove(draggedIdx);
                     int targetIndex = thisIdx - 1;
                     if (!upperPart) targetIndex ++;
-                    items.add(targetIndex, draggedItem);
+                    if (!events.onItemMove(getListView(), draggedIdx, targetIndex)) {
+                        items.remove(draggedIdx);
+                        items.add(targetIndex, draggedItem);
+                    }
                     success = true;
                     getListView().getSelectionModel().select(draggedItem);
                 }
@@ -591,6 +593,17 @@ public class DraggableGraphicCell<T> extends ListCell<T> {
          * @param empty true if the cell is empty, false otherwise
          */
         void onItemUpdate(Cell<?> cell, Object item, boolean empty);
+
+        /**
+         * Called when a dropped item is about to be moved to its new position.
+         * Handling the move here allows to apply it to the list's source, e.g. if the list view's items are a {@link javafx.collections.transformation.FilteredList FilteredList} that cannot be modified.
+         *
+         * @param listView  the {@link ListView} the item is moved in
+         * @param fromIndex the current index of the item
+         * @param toIndex   the index of the item after the move
+         * @return true if the move was handled, false to let the cell move the item inside the list view's items
+         */
+        boolean onItemMove(ListView<?> listView, int fromIndex, int toIndex);
     }
 
     /**
@@ -641,5 +654,13 @@ public class DraggableGraphicCell<T> extends ListCell<T> {
          */
         @Override
         public void onItemUpdate(Cell<?> cell, Object item, boolean empty) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean onItemMove(ListView<?> listView, int fromIndex, int toIndex) {
+            return false;
+        }
     }
 }
@@ -6,28 +6,46 @@ import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.concurrent.ScheduledService;
-import javafx.concurrent.Task;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import io.github.redstonemango.mangoplayer.back.ImageRegistry;
+import io.github.redstonemango.mangoplayer.back.MetadataIndexer;
+import io.github.redstonemango.mangoplayer.back.ThumbnailCache;
+import io.github.redstonemango.mangoplayer.back.ThumbnailVariants;
 import io.github.redstonemango.mangoplayer.back.Utilities;
+import io.github.redstonemango.mangoplayer.back.config.AudioMetadataCache;
+import io.github.redstonemango.mangoplayer.back.config.ConfigIO;
 import io.github.redstonemango.mangoplayer.back.config.MainConfigWrapper;
 import io.github.redstonemango.mangoplayer.back.config.PlaylistConfigWrapper;
 import io.github.redstonemango.mangoplayer.back.config.SongConfigWrapper;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class MangoPlayer extends Application {
 
     public static Stage primaryStage = null;
-    public static final String APP_FOLDER_PATH = OperatingSystem.loadCurrentOS().createAppConfigDir("MangoPlayer").getAbsolutePath();
+    public static final String APP_FOLDER_PATH = System.getProperty("mangoplayer.appFolder") != null // Set by the tests, so they never touch the user's library
+            ? new File(System.getProperty("mangoplayer.appFolder")).getAbsolutePath()
+            : OperatingSystem.loadCurrentOS().createAppConfigDir("MangoPlayer").getAbsolutePath();
     private static MangoPlayer APPLICATION;
     private static final Duration saveInterval = Duration.minutes(5);
+    private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MangoPlayer-Save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private @Nullable Future<?> inFlightSave = null;
 
     public static MangoPlayer getApplication() {
         return APPLICATION;
@@ -36,6 +54,7 @@ public class MangoPlayer extends Application {
     @Override
     public void start(Stage stage) throws IOException {
         APPLICATION = this;
+        ImageRegistry.preload(); // Before any screen is built, so Finals finds all icons decoded
         MainConfigWrapper.WindowData windowPosition = MainConfigWrapper.loadConfig().windowData;
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/io/github/redstonemango/mangoplayer/fxml/playlistOverview/playlistOverview.fxml"));
         Scene scene = new Scene(loader.load());
@@ -47,22 +66,14 @@ public class MangoPlayer extends Application {
         stage.setWidth(windowPosition.width);
         stage.setHeight(windowPosition.height);
         Utilities.prepareAndShowStage(stage, scene, loader, true);
+        Platform.runLater(() -> { // Runs after the first frame was shown, so the background work never delays the window
+            MetadataIndexer.startScan();
+            ThumbnailVariants.migrateInBackground();
+        });
 
-        ScheduledService<Void> saveService = new ScheduledService<>() {
-            @Override
-            protected Task<Void> createTask() {
-                return new Task<>() {
-                    @Override
-                    protected Void call() {
-                        save(true);
-                        return null;
-                    }
-                };
-            }
-        };
-        saveService.setPeriod(saveInterval);
-        saveService.setDelay(saveInterval); // Ensure that the first call is delayed by the final interval, so ScheduledService#start() does not immediately trigger this::save()
-        saveService.start();
+        Timeline saveTimeline = new Timeline(new KeyFrame(saveInterval, _ -> save(true, false))); // Song and playlist changes are already journaled, so only compact them if their journals grew large
+        saveTimeline.setCycleCount(Timeline.INDEFINITE); // The first save happens after one full interval
+        saveTimeline.play();
     }
 
     private static void setupLogManagement() {
@@ -80,11 +91,30 @@ public class MangoPlayer extends Application {
 
     @Override
     public void stop() {
-        save(false);
+        awaitSave(inFlightSave); // Let a running save finish first, it must not be interrupted by the exit
+        awaitSave(save(false)); // Only writes what changed since that save's capture
+        saveExecutor.shutdown();
         System.exit(0);
     }
 
-    public void save(boolean showNotification) {
+    private static void awaitSave(@Nullable Future<?> save) {
+        if (save == null) return;
+        try {
+            save.get();
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error while waiting for the application data to be saved: " + e);
+        }
+    }
+
+    public Future<?> save(boolean showNotification) {
+        return save(showNotification, true);
+    }
+
+    /**
+     * Captures the current state of all configs on the FX thread and writes it on the background save thread.
+     * @return The future of the background write
+     */
+    public Future<?> save(boolean showNotification, boolean compactJournals) {
         System.out.println("Beginning to save application data (" + (showNotification ? "" : "not ") + "notifying the user)...");
         if (showNotification) {
             Platform.runLater(() -> {
@@ -108,10 +138,20 @@ public class MangoPlayer extends Application {
                 timeline.play();
             });
         }
-        MainConfigWrapper.save();
-        PlaylistConfigWrapper.save();
-        SongConfigWrapper.save();
-        System.out.println("Done saving application data!");
+        Runnable mainSave = MainConfigWrapper.snapshot();
+        Runnable playlistSave = PlaylistConfigWrapper.snapshot(compactJournals);
+        Runnable songSave = SongConfigWrapper.snapshot(compactJournals);
+        Runnable metadataSave = AudioMetadataCache.snapshot();
+        inFlightSave = saveExecutor.submit(() -> {
+            if (mainSave != null) mainSave.run();
+            if (playlistSave != null) playlistSave.run();
+            if (songSave != null) songSave.run();
+            if (metadataSave != null) metadataSave.run();
+            System.out.println("Done saving application data! (" + ConfigIO.getSavesSkipped() + " saves skipped and " + ConfigIO.getBytesWritten() + " bytes written since startup)");
+            System.out.println("Decoded " + ImageRegistry.getDecodeCount() + " bundled images since startup");
+            System.out.println("Thumbnail cache: " + Math.round(ThumbnailCache.getHitRate() * 100) + "% hit rate, " + ThumbnailCache.getCachedBytes() + " bytes cached, " + ThumbnailCache.getDecodedBytes() + " bytes decoded since startup");
+        });
+        return inFlightSave;
     }
 
     public static void main(String[] args) {
@@ -23,7 +23,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.function.ToLongFunction;
 
 /**
  * A utility class to add automatic completions to {@linkplain TextField JavaFX's TextField}.<br>
@@ -146,14 +146,13 @@ public class TextFieldAutoCompletion {
             return;
         }
 
-        List<AnchorPane> matchingCompletions = filterCompletions(metaData, newText);
+        List<String> matchingCompletions = metaData.completions.topMatches(newText, metaData.caseSensitive, metaData.maxCompletions, metaData.completionWeigher);
         if (matchingCompletions.isEmpty()) {
             metaData.popup.hide();
             return;
         }
 
-        metaData.popupBox.getChildren().clear();
-        metaData.popupBox.getChildren().addAll(matchingCompletions);
+        showEntries(metaData, matchingCompletions, newText);
         double x = metaData.textField.localToScreen(0, 0).getX() + 2;
         double y = metaData.textField.localToScreen(0, 0).getY() + metaData.textField.getHeight() + 2;
         metaData.popup.show(metaData.textField, x, y);
@@ -175,15 +174,9 @@ public class TextFieldAutoCompletion {
      * @return Whether the action was successful. <i>(<code>true</code> if <code>index</code> was not <code>-1</code>, <code>false</code> otherwise)</i>
      */
     private static boolean onEntrySelected(MetaData metaData, int index) {
-        if (index == -1) return false;
+        if (index < 0 || index >= metaData.shownCompletions.size()) return false;
 
-        StringBuilder sb = new StringBuilder();
-        for (Node node : ((TextFlow)((Label)((AnchorPane)metaData.popupBox.getChildren().get(index)).getChildren().getFirst()).getGraphic()).getChildren()) {
-            if (node instanceof Text) {
-                sb.append(((Text) node).getText());
-            }
-        }
-        String completion = sb.toString();
+        String completion = metaData.shownCompletions.get(index);
 
         metaData.textField.setText(completion);
         metaData.textField.positionCaret(completion.length());
@@ -196,35 +189,34 @@ public class TextFieldAutoCompletion {
     }
 
     /**
-     * Library-internal method that filters the completions matching the field's text and returns them as a {@linkplain List} of {@linkplain #buildEntry(MetaData, String, String, int) entries} so they can be used elsewhere
-     * @param metaData The {@linkplain MetaData MetaData} belonging to the field, this is being filtered.
-     * @param sourceText The text that has been entered into the field.
-     * @return The matching completions as a {@linkplain List} of {@linkplain #buildEntry(MetaData, String, String, int) entries}.
+     * Library-internal method that shows the given completions in the popup. The {@linkplain #buildEntry(MetaData, int) entries} are taken from the field's entry pool, which only grows up to the {@linkplain MetaData#getMaxCompletions() max count of completions}.
+     * @param metaData The {@linkplain MetaData MetaData} belonging to the field, whose popup is being filled.
+     * @param completions The completions to show, already ranked.
+     * @param filter The filter that has been entered into the field.
      */
-    private static List<AnchorPane> filterCompletions(MetaData metaData, String sourceText) {
-        List<AnchorPane> matchingCompletions = new ArrayList<>();
-        metaData.completions.forEach(completion -> {
-            if (metaData.caseSensitive) {
-                if (completion.contains(sourceText)) matchingCompletions.add(buildEntry(metaData, completion, sourceText, matchingCompletions.size()));
-            }
-            else {
-                if (completion.toLowerCase(Locale.ROOT).contains(sourceText.toLowerCase(Locale.ROOT))) matchingCompletions.add(buildEntry(metaData, completion, sourceText, matchingCompletions.size()));
-            }
-        });
-        return matchingCompletions;
+    private static void showEntries(MetaData metaData, List<String> completions, String filter) {
+        while (metaData.entryPool.size() < completions.size()) {
+            metaData.entryPool.add(buildEntry(metaData, metaData.entryPool.size()));
+        }
+        for (int i = 0; i < completions.size(); i++) {
+            updateEntry(metaData, metaData.entryPool.get(i), completions.get(i), filter);
+        }
+        metaData.shownCompletions = completions;
+        metaData.popupBox.getChildren().setAll(metaData.entryPool.subList(0, completions.size()));
+        setSelectedIndex(metaData, -1);
     }
 
     /**
-     * Library-internal method that builds an {@linkplain AnchorPane} containing a {@linkplain Label} with the completion's {@linkplain #buildTextFlow(MetaData, String, String) text}.
+     * Library-internal method that builds an empty {@linkplain AnchorPane} containing a {@linkplain Label} whose graphic is a {@linkplain TextFlow} of three {@linkplain Text Texts} <i>(before, inside and after the match)</i>. The texts are set by {@linkplain #updateEntry(MetaData, AnchorPane, String, String) updating} the entry.
      * @param metaData The {@linkplain MetaData MetaData} belonging to the field, this is being filtered.
-     * @param text The text of the completion, this method builds the entry for.
-     * @param filter The filter that has been entered into the field.
      * @param boxIndex The index, this entry is going to have in the popup list.
      * @return The built {@linkplain AnchorPane}.
      */
-    private static AnchorPane buildEntry(MetaData metaData, String text, String filter, int boxIndex) {
+    private static AnchorPane buildEntry(MetaData metaData, int boxIndex) {
+        Text textFilter = new Text();
+        textFilter.setFont(Font.font(Font.getDefault().getName(), FontWeight.BOLD, 12));
         Label label = new Label();
-        label.setGraphic(buildTextFlow(metaData, text, filter));
+        label.setGraphic(new TextFlow(new Text(), textFilter, new Text()));
         label.setPrefHeight(10);
         label.setMouseTransparent(true);
         AnchorPane pane = new AnchorPane(label);
@@ -236,20 +228,19 @@ public class TextFieldAutoCompletion {
     }
 
     /**
-     * Library-internal method that builds a colored {@linkplain TextFlow} <i>(that is then used in the {@linkplain #buildEntry(MetaData, String, String, int) entry}'s label)</i>.
+     * Library-internal method that sets the texts of an {@linkplain #buildEntry(MetaData, int) entry}, so the match inside the completion is highlighted.
      * @param metaData The {@linkplain MetaData MetaData} belonging to the field, this is being filtered.
-     * @param text The text of the completion, this method builds the text flow for.
+     * @param entry The entry to update.
+     * @param text The text of the completion, the entry shows.
      * @param filter The filter that has been entered into the field.
-     * @return The built {@linkplain TextFlow}.
      */
-    private static TextFlow buildTextFlow(MetaData metaData, String text, String filter) {
-        int filterIndex = text.toLowerCase().indexOf(filter.toLowerCase());
-        Text textBefore = new Text(text.substring(0, filterIndex));
-        Text textAfter = new Text(text.substring(filterIndex + filter.length()));
-        Text textFilter = new Text(text.substring(filterIndex,  filterIndex + filter.length()));
-        textFilter.setFill(metaData.matchHighlightColor);
-        textFilter.setFont(Font.font(Font.getDefault().getName(), FontWeight.BOLD, 12));
-        return new TextFlow(textBefore, textFilter, textAfter);
+    private static void updateEntry(MetaData metaData, AnchorPane entry, String text, String filter) {
+        List<Node> texts = ((TextFlow) ((Label) entry.getChildren().getFirst()).getGraphic()).getChildren();
+        int filterIndex = metaData.caseSensitive ? text.indexOf(filter) : text.toLowerCase(Locale.ROOT).indexOf(filter.toLowerCase(Locale.ROOT));
+        ((Text) texts.get(0)).setText(text.substring(0, filterIndex));
+        ((Text) texts.get(1)).setText(text.substring(filterIndex,  filterIndex + filter.length()));
+        ((Text) texts.get(1)).setFill(metaData.matchHighlightColor);
+        ((Text) texts.get(2)).setText(text.substring(filterIndex + filter.length()));
     }
 
     /**
@@ -313,6 +304,131 @@ public class TextFieldAutoCompletion {
     }
 
 
+    /**
+     * Library-internal {@linkplain Set} of completions that additionally keeps them sorted by their lower case text, so completions starting with the filter are found without scanning all of them.<br>
+     * The sort keys consist of the lower case text, a separator and the original text. This keeps completions only differing in case apart and allows matching the lower case part without allocating.
+     */
+    private static class CompletionSet extends AbstractSet<String> {
+        private static final char KEY_SEPARATOR = '\0';
+        private final Set<String> completions = new HashSet<>();
+        private final TreeSet<String> keys = new TreeSet<>();
+
+        private CompletionSet(Collection<String> completions) {
+            addAll(completions);
+        }
+
+        @Override
+        public boolean add(String completion) {
+            if (!completions.add(completion)) return false;
+            keys.add(key(completion));
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof String completion) || !completions.remove(completion)) return false;
+            keys.remove(key(completion));
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return completions.contains(o);
+        }
+
+        @Override
+        public void clear() {
+            completions.clear();
+            keys.clear();
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            Iterator<String> iterator = completions.iterator();
+            return new Iterator<>() {
+                private @Nullable String current;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    current = iterator.next();
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    keys.remove(key(Objects.requireNonNull(current)));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return completions.size();
+        }
+
+        /**
+         * Ranks the completions containing the filter: Completions starting with it come before those containing it elsewhere, then heavier ones before lighter ones, then alphabetically.
+         * @param limit The max count of completions to return
+         * @return The best ranked {@code limit} completions
+         */
+        private List<String> topMatches(String filter, boolean caseSensitive, int limit, @Nullable ToLongFunction<String> weigher) {
+            String lowerFilter = filter.toLowerCase(Locale.ROOT);
+            Comparator<Match> ranking = Comparator.comparing(Match::substringMatch).thenComparing(Match::weight, Comparator.reverseOrder()).thenComparing(Match::key);
+            PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, ranking.reversed()); // The worst kept match on top, so it can be dropped
+
+            for (String key : keys.subSet(lowerFilter, lowerFilter + Character.MAX_VALUE)) { // Lower case prefix matches are adjacent in the sorted keys
+                if (caseSensitive && !key.startsWith(filter, key.indexOf(KEY_SEPARATOR) + 1)) continue;
+                offer(best, new Match(key, false, weigh(key, weigher)), limit, ranking);
+            }
+            if (best.size() < limit) { // Otherwise, no match in the middle of a completion can rank high enough
+                for (String key : keys) {
+                    int separator = key.indexOf(KEY_SEPARATOR);
+                    boolean matches;
+                    if (caseSensitive) {
+                        matches = !key.startsWith(filter, separator + 1) && key.indexOf(filter, separator + 1) >= 0;
+                    }
+                    else {
+                        int index = key.indexOf(lowerFilter);
+                        matches = index > 0 && index < separator; // Index 0 is a prefix match, which was already offered
+                    }
+                    if (matches) offer(best, new Match(key, true, weigh(key, weigher)), limit, ranking);
+                }
+            }
+
+            List<Match> ranked = new ArrayList<>(best);
+            ranked.sort(ranking);
+            List<String> result = new ArrayList<>(ranked.size());
+            ranked.forEach(match -> result.add(match.key().substring(match.key().indexOf(KEY_SEPARATOR) + 1)));
+            return result;
+        }
+
+        private static void offer(PriorityQueue<Match> best, Match match, int limit, Comparator<Match> ranking) {
+            if (best.size() < limit) {
+                best.add(match);
+            }
+            else if (limit > 0 && ranking.compare(match, best.peek()) < 0) {
+                best.poll();
+                best.add(match);
+            }
+        }
+
+        private static long weigh(String key, @Nullable ToLongFunction<String> weigher) {
+            return weigher == null ? 0 : weigher.applyAsLong(key.substring(key.indexOf(KEY_SEPARATOR) + 1));
+        }
+
+        private static String key(String completion) {
+            return completion.toLowerCase(Locale.ROOT) + KEY_SEPARATOR + completion;
+        }
+
+        private record Match(String key, boolean substringMatch, long weight) {}
+    }
+
     /**
      * A subclass of {@linkplain TextFieldAutoCompletion} that controls the metadata of a registered {@linkplain TextField}.<br><br>
      * It can be accessed using {@linkplain #autoCompletable(TextField) TextFieldAutoCompletion.autoCompletable(TextField)}:
@@ -341,7 +457,15 @@ public class TextFieldAutoCompletion {
         /**
          * Set of <i>(string)</i> completions that should be suggested.
          */
-        private Set<String> completions;
+        private CompletionSet completions;
+        /**
+         * The max count of completions that are shown in the popup. Only the best ranked ones are shown.
+         */
+        private int maxCompletions;
+        /**
+         * <i>({@linkplain Nullable})</i> function supplying the weight of a completion. Completions matching equally well are ranked by their weight, the heaviest first.
+         */
+        private @Nullable ToLongFunction<String> completionWeigher;
         /**
          * Whether the search algorithm should be case-sensitive
          */
@@ -397,6 +521,14 @@ public class TextFieldAutoCompletion {
          * Library-internal value storing the action callback that is called when the owner fires a <b>keyPressEvent</b>.
          */
         private final EventHandler<? super KeyEvent> keyEvent;
+        /**
+         * Library-internal value storing the entries that were built so far. They are reused every time the popup is filled.
+         */
+        private final List<AnchorPane> entryPool = new ArrayList<>();
+        /**
+         * Library-internal value storing the completions that are currently shown, in the order of the popup's entries.
+         */
+        private List<String> shownCompletions = List.of();
 
         /**
          * Constructor for the metadata object.
@@ -410,7 +542,8 @@ public class TextFieldAutoCompletion {
         public MetaData(TextField textField, int lineCount, boolean caseSensitive, boolean autoScroll, boolean escapable, Color matchHighlightColor) {
             this.textField = textField;
             this.lineCount = lineCount;
-            this.completions = new HashSet<>();
+            this.completions = new CompletionSet(Set.of());
+            this.maxCompletions = 50;
             this.caseSensitive = caseSensitive;
             this.autoScroll = autoScroll;
             this.matchHighlightColor = matchHighlightColor;
@@ -465,7 +598,7 @@ public class TextFieldAutoCompletion {
          * @return This instance.
          */
         public MetaData setCompletions(List<String> completions) {
-            this.completions = new HashSet<>(completions);
+            this.completions = new CompletionSet(completions);
             return this;
         }
         /**
@@ -474,16 +607,16 @@ public class TextFieldAutoCompletion {
          * @return This instance.
          */
         public MetaData setCompletions(String... completions) {
-            this.completions = Arrays.stream(completions).collect(Collectors.toSet());
+            this.completions = new CompletionSet(Arrays.asList(completions));
             return this;
         }
         /**
-         * Sets the strings that should be suggested by the {@linkplain TextField} <i>(As a {@linkplain Set})</i>.
+         * Sets the strings that should be suggested by the {@linkplain TextField} <i>(As a {@linkplain Set})</i>. The strings are copied, so later changes to the given set are not reflected.
          * @param completions The value to apply.
          * @return This instance.
          */
         public MetaData setCompletions(Set<String> completions) {
-            this.completions = completions;
+            this.completions = new CompletionSet(completions);
             return this;
         }
 
@@ -495,6 +628,42 @@ public class TextFieldAutoCompletion {
             return completions;
         }
 
+        /**
+         * Gets the max count of completions that are shown in the popup.
+         * @return The max count of completions that are shown in the popup.
+         */
+        public int getMaxCompletions() {
+            return maxCompletions;
+        }
+
+        /**
+         * Sets the max count of completions that are shown in the popup. Only the best ranked ones are shown.
+         * @param maxCompletions The value to apply.
+         * @return This instance.
+         */
+        public MetaData setMaxCompletions(int maxCompletions) {
+            this.maxCompletions = maxCompletions;
+            return this;
+        }
+
+        /**
+         * Gets the <i>({@linkplain Nullable nullable})</i> function supplying the weight of a completion.
+         * @return The <i>({@linkplain Nullable nullable})</i> function supplying the weight of a completion.
+         */
+        public @Nullable ToLongFunction<String> getCompletionWeigher() {
+            return completionWeigher;
+        }
+
+        /**
+         * Sets the <i>({@linkplain Nullable nullable})</i> function supplying the weight of a completion. Completions matching equally well are ranked by their weight, the heaviest first.
+         * @param completionWeigher The value to apply.
+         * @return This instance.
+         */
+        public MetaData setCompletionWeigher(@Nullable ToLongFunction<String> completionWeigher) {
+            this.completionWeigher = completionWeigher;
+            return this;
+        }
+
         /**
          * Checks whether the search algorithm is case-sensitive.
          * @return Whether the search algorithm is case-sensitive.
@@ -4,37 +4,26 @@ import javafx.event.ActionEvent;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
-import javafx.scene.image.Image;
 import javafx.scene.input.MouseButton;
 import io.github.redstonemango.mangoplayer.front.controller.interfaces.IPlaylistListable;
 import io.github.redstonemango.mangoplayer.front.entryBases.PlaylistEntryBase;
-import io.github.redstonemango.mangoplayer.back.Finals;
 import io.github.redstonemango.mangoplayer.back.Playlist;
 import io.github.redstonemango.mangoplayer.back.PlaylistExporting;
-import io.github.redstonemango.mangoplayer.back.Utilities;
+import io.github.redstonemango.mangoplayer.back.ThumbnailCache;
+import io.github.redstonemango.mangoplayer.back.ThumbnailLoader;
 
-import java.io.File;
 
 public class PlaylistEntry extends PlaylistEntryBase {
 
-    private final Playlist playlist;
+    private Playlist playlist;
     private final IPlaylistListable controller;
 
-    public PlaylistEntry(final Playlist playlist, IPlaylistListable controller) {
-        this.playlist = playlist;
+    /**
+     * Creates an entry without a playlist. It has to be {@linkplain #bind(Playlist) bound} before it is shown
+     */
+    public PlaylistEntry(IPlaylistListable controller) {
         this.controller = controller;
 
-
-        //init name
-        nameLabel.setText(playlist.getName());
-
-        //init song count
-        int songCount = playlist.getSongs().size();
-        songCountLabel.setText(songCount == 0 ? "No songs" : (songCount == 1 ? "1 song" : songCount + " songs"));
-
-        //init graphic
-        updateGraphic();
-
         //init context menu
         ContextMenu contextMenu = new ContextMenu();
         MenuItem openMenuItem = new MenuItem("Open");
@@ -42,11 +31,11 @@ public class PlaylistEntry extends PlaylistEntryBase {
         MenuItem renameMenuItem = new MenuItem("Rename");
         MenuItem graphicMenuItem = new MenuItem("Manage graphic");
         MenuItem exportMenuItem = new MenuItem("Export");
-        openMenuItem.setOnAction(_ -> controller.onPlaylistOpen(playlist));
-        deleteMenuItem.setOnAction(_ -> controller.onPlaylistDelete(playlist));
-        renameMenuItem.setOnAction(_ -> controller.onPlaylistRename(playlist));
-        graphicMenuItem.setOnAction(_ -> controller.onGraphicManage(playlist));
-        exportMenuItem.setOnAction(_ -> PlaylistExporting.export(playlist));
+        openMenuItem.setOnAction(_ -> controller.onPlaylistOpen(this.playlist));
+        deleteMenuItem.setOnAction(_ -> controller.onPlaylistDelete(this.playlist));
+        renameMenuItem.setOnAction(_ -> controller.onPlaylistRename(this.playlist));
+        graphicMenuItem.setOnAction(_ -> controller.onGraphicManage(this.playlist));
+        exportMenuItem.setOnAction(_ -> PlaylistExporting.export(this.playlist));
         contextMenu.getItems().addAll(openMenuItem, deleteMenuItem, renameMenuItem, graphicMenuItem, exportMenuItem);
         this.setOnMouseClicked(event -> {
             if (event.getButton() == MouseButton.SECONDARY) {
@@ -58,23 +47,25 @@ public class PlaylistEntry extends PlaylistEntryBase {
         });
     }
 
+    /**
+     * Shows another playlist in this entry, which is reused by its list cell
+     */
+    public void bind(Playlist playlist) {
+        this.playlist = playlist;
+
+        //init name
+        nameLabel.setText(playlist.getName());
+
+        //init song count
+        int songCount = playlist.getSongCount();
+        songCountLabel.setText(songCount == 0 ? "No songs" : (songCount == 1 ? "1 song" : songCount + " songs"));
+
+        //init graphic
+        updateGraphic();
+    }
+
     public void updateGraphic() {
-        File songGraphicFile = new File(Utilities.graphicPathFromPlaylist(playlist));
-        if (songGraphicFile.exists()) {
-            graphicView.setImage(new Image(songGraphicFile.toURI().toString()));
-        }
-        else if (!playlist.getSongs().isEmpty()) {
-            File songThumbnail = new File(Utilities.thumbnailPathFromSong(playlist.getSongs().getFirst()));
-            if (songThumbnail.exists()) {
-                graphicView.setImage(new Image(songThumbnail.toURI().toString()));
-            }
-            else {
-                graphicView.setImage(Finals.IMAGE_THUMBNAIL_FALLBACK);
-            }
-        }
-        else {
-            graphicView.setImage(Finals.IMAGE_NO_SONG);
-        }
+        ThumbnailLoader.loadPlaylistGraphic(graphicView, playlist, ThumbnailCache.SIZE_LIST);
     }
 
     public Label getNameLabel() {
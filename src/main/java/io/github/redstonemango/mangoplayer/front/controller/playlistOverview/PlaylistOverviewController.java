@@ -2,6 +2,7 @@ package io.github.redstonemango.mangoplayer.front.controller.playlistOverview;
 
 import io.github.redstonemango.mangoutils.OperatingSystem;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.FileChooser;
@@ -30,25 +31,29 @@ public class PlaylistOverviewController implements IInitializable, IPlaylistList
     @FXML private Tooltip songFilterTooltip;
     @FXML private TextField songFilterField;
     @FXML private ListView<Playlist> playlistsView;
+    @FXML private Label metadataStatusLabel;
 
     @Override
     public void init() {
         songManagerTooltip.setShowDelay(Duration.millis(50));
         songFilterTooltip.setShowDelay(Duration.millis(50));
         TextFieldAutoCompletion.autoCompletable(songFilterField);
+        metadataStatusLabel.textProperty().bind(MetadataIndexer.statusProperty());
+        metadataStatusLabel.visibleProperty().bind(MetadataIndexer.statusProperty().isNotEmpty());
+        metadataStatusLabel.managedProperty().bind(metadataStatusLabel.visibleProperty());
 
         repaintPlaylists();
 
-        Utilities.applyListViewCellFactory(playlistsView, playlist -> {
-            PlaylistEntry entry = new PlaylistEntry(playlist, this);
-            double width = songFilterField.getScene().getWindow().getWidth();
-            entry.setPrefWidth(width - 18);
-            entry.getNameLabel().setPrefWidth(width - 204);
-            entry.getSongCountLabel().setPrefWidth(width - 204);
+        Utilities.applyRecyclingListViewCellFactory(playlistsView, () -> {
+            PlaylistEntry entry = new PlaylistEntry(this);
+            ReadOnlyDoubleProperty width = songFilterField.getScene().getWindow().widthProperty();
+            entry.prefWidthProperty().bind(width.subtract(18));
+            entry.getNameLabel().prefWidthProperty().bind(width.subtract(204));
+            entry.getSongCountLabel().prefWidthProperty().bind(width.subtract(204));
             return entry;
-        });
+        }, PlaylistEntry::bind);
 
-        Utilities.applyHeldPropertyListener(this, playlistsView.getScene().getWindow().widthProperty(), (_, _, _) -> playlistsView.refresh());
+        ThumbnailLoader.installPrefetcher(playlistsView, playlist -> ThumbnailLoader.prefetchPlaylistGraphic(playlist, ThumbnailCache.SIZE_LIST));
 
         songFilterField.textProperty().addListener((_, _, newValue) -> {
             playlistsView.getItems().clear();
@@ -163,7 +168,7 @@ public class PlaylistOverviewController implements IInitializable, IPlaylistList
         if (dialog.getResult() != null) {
             Playlist playlist = new Playlist(dialog.getResult(), new HashSet<>(), 0, 0);
             playlist.ensureFields();
-            PlaylistConfigWrapper.loadConfig().playlists.addFirst(playlist);
+            PlaylistConfigWrapper.loadConfig().addPlaylist(playlist);
             repaintPlaylists();
             System.out.println("Creating new playlist '" + dialog.getResult() + "' with ID '" + playlist.getId() + "'");
         }
@@ -252,6 +257,7 @@ public class PlaylistOverviewController implements IInitializable, IPlaylistList
                     }
                     try {
                         Files.copy(pngFiles.getFirst().toPath(), graphicFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                        ThumbnailCache.invalidate(playlist);
                         System.out.println("Updated graphic of playlist '" + playlist.getName() + "' (ID is '" + playlist.getId() + "')");
                         repaintPlaylists();
                     }
@@ -267,6 +273,7 @@ public class PlaylistOverviewController implements IInitializable, IPlaylistList
         File file = new File(Utilities.graphicPathFromPlaylist(playlist));
         try {
             Files.delete(file.toPath());
+            ThumbnailCache.invalidate(playlist);
             System.out.println("Deleted graphic of playlist '" + playlist.getName() + "' (ID is '" + playlist.getId() + "')");
         }
         catch (IOException e) {
@@ -18,6 +18,8 @@ import javafx.scene.text.FontPosture;
 import javafx.stage.Popup;
 import io.github.redstonemango.mangoplayer.front.controller.interfaces.IInitializable;
 import io.github.redstonemango.mangoplayer.back.NativeHookManager;
+import io.github.redstonemango.mangoplayer.back.PlaybackClock;
+import io.github.redstonemango.mangoplayer.back.PlaylistAudioManager;
 import io.github.redstonemango.mangoplayer.back.Utilities;
 import io.github.redstonemango.mangoplayer.back.config.MainConfigWrapper;
 import org.jetbrains.annotations.Nullable;
@@ -35,6 +37,7 @@ public class PlayControlController implements IInitializable, NativeKeyListener
     private @Nullable Label newPauseKeyCombinationLabel = null;
     private final Set<Integer> pressedKeys = new HashSet<>();
     private boolean combinationTriggered = false;
+    private final PlaybackClock.Subscriber clockSubscriber = this::onClockTick;
 
     @FXML private Tooltip controlSongNameTooltip;
     @FXML private ToggleButton controlStopAfterSongButton;
@@ -64,13 +67,11 @@ public class PlayControlController implements IInitializable, NativeKeyListener
         Utilities.applyHeldPropertyListener(this, bindingSource.stopAfterSongButton.disableProperty(), (_, _, b) -> controlStopAfterSongButton.setDisable(b));
         Utilities.applyHeldPropertyListener(this, controlStopAfterSongButton.selectedProperty(), (_, _, b) -> bindingSource.stopAfterSongButton.setSelected(b));
         Utilities.applyHeldPropertyListener(this, bindingSource.stopAfterSongButton.selectedProperty(), (_, _, b) -> controlStopAfterSongButton.setSelected(b));
-        Utilities.applyHeldPropertyListener(this, bindingSource.currentTimeLabel.textProperty(), (_, _, s) -> controlCurrentTimeLabel.setText(s));
         Utilities.applyHeldPropertyListener(this, bindingSource.bigSongView.imageProperty(), (_, _, i) -> controlSongView.setImage(i));
         Utilities.applyHeldPropertyListener(this, ((ImageView) bindingSource.shuffleButton.getGraphic()).imageProperty(), (_, _, i) -> ((ImageView) controlShuffleButton.getGraphic()).setImage(i));
         Utilities.applyHeldPropertyListener(this, ((ImageView) bindingSource.loopButton.getGraphic()).imageProperty(), (_, _, i) -> ((ImageView) controlLoopButton.getGraphic()).setImage(i));
         Utilities.applyHeldPropertyListener(this, ((ImageView) bindingSource.playButton.getGraphic()).imageProperty(), (_, _, i) -> ((ImageView) controlPlayButton.getGraphic()).setImage(i));
         Utilities.applyHeldPropertyListener(this, bindingSource.durationSlider.maxProperty(), (_, _, n) -> controlDurationSlider.setMax(n.doubleValue()));
-        Utilities.applyHeldPropertyListener(this, bindingSource.durationSlider.valueProperty(), (_, _, n) -> controlDurationSlider.setValue(n.doubleValue()));
         Utilities.applyHeldPropertyListener(this, controlDurationSlider.valueProperty(), (_, _, n) -> bindingSource.durationSlider.setValue(n.doubleValue()));
         Utilities.applyHeldPropertyListener(this, bindingSource.volumeImage.imageProperty(), (_, _, i) -> volumeImage.setImage(i));
         Utilities.applyHeldPropertyListener(this, bindingSource.volumeSlider.valueProperty(), (_, _, n) -> volumeSlider.setValue(n.doubleValue()));
@@ -97,6 +98,7 @@ public class PlayControlController implements IInitializable, NativeKeyListener
         backwardButton.setDisable(bindingSource.backwardButton.isDisable());
         controlPlayButton.setDisable(bindingSource.playButton.isDisable());
         controlStopButton.setDisable(bindingSource.stopButton.isDisable());
+        PlaybackClock.subscribe(clockSubscriber); // The time label is pushed by the binding source (see #setCurrentTimeText(String))
 
 
 
@@ -244,6 +246,7 @@ public class PlayControlController implements IInitializable, NativeKeyListener
         if (newPauseKeyCombinationLabel != null) { // We are currently changing the pause key combination
             MainConfigWrapper.loadConfig().nativePauseKeyCombination.clear();
             MainConfigWrapper.loadConfig().nativePauseKeyCombination.addAll(pressedKeys);
+            MainConfigWrapper.markDirty();
             System.out.println("Updated native pause key combination: '" + newPauseKeyCombinationLabel.getText() + "' " + MainConfigWrapper.loadConfig().nativePauseKeyCombination.toString().replace("[", "(").replace("]", ")").replace(",", ";"));
 
             Platform.runLater(this::applyPauseKeyPopupDefaultFace);
@@ -255,9 +258,19 @@ public class PlayControlController implements IInitializable, NativeKeyListener
     protected void destroy() {
         bindingSource.onKeyPress = _ -> {};
         NativeHookManager.getInstance().setChild(null);
+        PlaybackClock.unsubscribe(clockSubscriber);
         Utilities.removeHeldListeners(this);
     }
 
+    private void onClockTick(PlaybackClock.Snapshot snapshot) {
+        if (!PlaylistAudioManager.isPlaying() || bindingSource.isSeeking()) return;
+        controlDurationSlider.setValue(snapshot.getCurrentSeconds() + 1);
+    }
+
+    protected void setCurrentTimeText(String text) {
+        controlCurrentTimeLabel.setText(text);
+    }
+
     @FXML
     private void onPauseKeyChange() {
         if (!pauseKeyPopup.isShowing()) {
@@ -1,6 +1,8 @@
 package io.github.redstonemango.mangoplayer.front.controller.playlistScreen;
 
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.*;
@@ -31,9 +33,7 @@ import io.github.redstonemango.mangoplayer.back.*;
 import io.github.redstonemango.mangoplayer.back.config.MainConfigWrapper;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
@@ -43,6 +43,9 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
     public Playlist playlist;
 
     private @Nullable Duration cachedSongTime;
+    private String totalTimeText = "--:--";
+    private boolean seeking = false;
+    private final PlaybackClock.Subscriber clockSubscriber = this::onClockTick;
     private Label endAfterSongIcnContainer;
     private Popup volumePopup;
     private @Nullable PlayControlWindow detachedControl;
@@ -65,6 +68,7 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
     @FXML protected Button loopButton;
     @FXML protected Tooltip songNameTooltip;
     @FXML private ListView<Song> songsView;
+    private FilteredList<Song> filteredSongs; // Over the playlist's own song list, so adding, removing and moving songs shows without copying
     @FXML protected Button playButton;
     @FXML protected Button stopButton;
     @FXML protected Slider durationSlider;
@@ -79,34 +83,41 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
     @Override
     public void init() {
         PlaylistAudioManager.registerController(this);
+        PlaybackClock.subscribe(clockSubscriber);
 
         PlaylistScreenController thisInstance = this;
-        songsView.setCellFactory(_ -> new DraggableGraphicCell<>(song -> {          // Cell display settings
-            PlaylistSongEntry entry = new PlaylistSongEntry(song, thisInstance);
-            double width = songsFilterField.getScene().getWindow().getWidth();
-            entry.setSortable(songsFilterField.getText().isEmpty() && !PlaylistAudioManager.isPlaying());
-            entry.setDeletable(!PlaylistAudioManager.isPlaying());
-            entry.setPrefWidth(width - 18);
-            entry.getNameLabel().setPrefWidth(width - 232);
-            if (song.equals(PlaylistAudioManager.getCurrentlyPlayingSong()))
-                entry.setStyle(Finals.STYLE_CODE_SONG_PLAYING);
-            entry.getDeleteButton().setDisable(PlaylistAudioManager.isPlaying());
-            return new DraggableGraphicCell.GraphicData(entry, entry.getSortLabel());
-        }, song -> {                                                                               // Drag view settings
-            File thumbnailFile = new File(Utilities.thumbnailPathFromSong(song));
-            Image songImage = Finals.IMAGE_THUMBNAIL_FALLBACK;
-            if (thumbnailFile.exists()) {
-                songImage = new Image(thumbnailFile.toURI().toString());
-            }
-            return Utilities.scaleToSmallBounds(songImage, 50);
-        }, _ -> {
-            return songsFilterField.getText().isEmpty() && !PlaylistAudioManager.isPlaying();            // Allow sorting settings
-        }, new DraggableGraphicCell.EventAdapter() {                                                     // Event settings
-            @Override
-            public void onDragDone(DragEvent event) {
-                onSongsSorted();
-            }
-        }, new DraggableGraphicCell.LineData(Color.ORANGE, 5)));                                   // Separator line settings
+        songsView.setCellFactory(_ -> {
+            PlaylistSongEntry entry = new PlaylistSongEntry(thisInstance); // Created once per cell and rebound to every song the cell shows
+            ReadOnlyDoubleProperty width = songsFilterField.getScene().getWindow().widthProperty();
+            entry.prefWidthProperty().bind(width.subtract(18));
+            entry.getNameLabel().prefWidthProperty().bind(width.subtract(232));
+            DraggableGraphicCell.GraphicData graphicData = new DraggableGraphicCell.GraphicData(entry, entry.getSortLabel());
+            return new DraggableGraphicCell<>(song -> {                                       // Cell display settings
+                entry.bind(song);
+                entry.setSortable(songsFilterField.getText().isEmpty() && !PlaylistAudioManager.isPlaying());
+                entry.setDeletable(!PlaylistAudioManager.isPlaying());
+                entry.setPlaying(song.equals(PlaylistAudioManager.getCurrentlyPlayingSong()));
+                entry.getDeleteButton().setDisable(PlaylistAudioManager.isPlaying());
+                return graphicData;
+            }, song -> {                                                                               // Drag view settings
+                Image songImage = ThumbnailCache.thumbnail(song.getId(), 50); // Already decoded at drag view size
+                return songImage != null ? songImage : Utilities.scaleToSmallBounds(Finals.IMAGE_THUMBNAIL_FALLBACK, 50);
+            }, _ -> {
+                return songsFilterField.getText().isEmpty() && !PlaylistAudioManager.isPlaying();            // Allow sorting settings
+            }, new DraggableGraphicCell.EventAdapter() {                                                     // Event settings
+                @Override
+                public void onDragDone(DragEvent event) {
+                    onSongsSorted();
+                }
+
+                @Override
+                public boolean onItemMove(ListView<?> listView, int fromIndex, int toIndex) {
+                    playlist.moveSong(fromIndex, toIndex); // Sorting is only allowed while the filter is empty, so view and playlist indices are the same
+                    return true;
+                }
+            }, new DraggableGraphicCell.LineData(Color.ORANGE, 5));                               // Separator line settings
+        });
+        ThumbnailLoader.installPrefetcher(songsView, song -> ThumbnailLoader.prefetchThumbnail(song.getId(), ThumbnailCache.SIZE_LIST));
 
         Platform.runLater(() -> {
             Node header = controlsTitledPane.lookup(".title");
@@ -231,29 +242,28 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
                     ((HBox) controlsTitledPane.getParent()).getChildren().addFirst(smallBackButton);
             }
             MainConfigWrapper.loadConfig().isSongControlExpanded = isExpanded;
+            MainConfigWrapper.markDirty();
             double width = songsFilterField.getScene().getWindow().getWidth();
             controlsTitledPane.setPrefWidth(width - (isExpanded ? 0 : 31));
         });
 
         // load songs
-        playlist.getSongs().forEach(song -> {
-            songsView.getItems().add(song);
-            TextFieldAutoCompletion.autoCompletable(songsFilterField).getCompletions().add(song.getName());
-        });
+        filteredSongs = new FilteredList<>(playlist.getSongs());
+        songsView.setItems(filteredSongs);
+        playlist.getSongs().forEach(song -> TextFieldAutoCompletion.autoCompletable(songsFilterField).getCompletions().add(song.getName()));
+        TextFieldAutoCompletion.autoCompletable(songsFilterField).setCompletionWeigher(Utilities.listenCountWeigher(playlist.getSongs()));
 
         // register filter listener
         songsFilterField.textProperty().addListener((_, _, newValue) -> {
-            songsView.getItems().clear();
-            playlist.getSongs().forEach(song -> {
-                if (song.getName().toLowerCase(Locale.ROOT).contains(newValue.toLowerCase(Locale.ROOT))) {
-                    songsView.getItems().add(song);
-                }
+            String query = SongSearchIndex.normalize(newValue);
+            filteredSongs.setPredicate(query.isEmpty() ? null : song -> {
+                String normalizedName = SongSearchIndex.normalizedName(song.getId()); // Normalized once per rename, not once per keystroke
+                return normalizedName != null && normalizedName.contains(query);
             });
         });
 
         // register width listeners
         Utilities.applyHeldPropertyListener(this, songsFilterField.getScene().getWindow().widthProperty(), (_, _, newValue) -> {
-            songsView.refresh();
             addSongButton.setPrefWidth(newValue.doubleValue());
             controlsTitledPane.setPrefWidth(newValue.doubleValue() - (controlsTitledPane.isExpanded() ? 0 : 31));
             Node header = controlsTitledPane.lookup(".title");
@@ -306,6 +316,7 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
     @FXML
     protected void onVolumeSliderUpdate(double newValue) {
         MainConfigWrapper.loadConfig().volume = newValue;
+        MainConfigWrapper.markDirty();
         if (MainConfigWrapper.loadConfig().isMuted && initialized) {  // Unmute volume if muted. This also calls PlaylistAudioManager#updateVolume(), so no need to to it again
             onVolumeMute();
         }
@@ -318,6 +329,7 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
     protected void onVolumeMute() {
         Utilities.tryMovePlaylistToListTop(playlist);
         MainConfigWrapper.loadConfig().isMuted = !MainConfigWrapper.loadConfig().isMuted;
+        MainConfigWrapper.markDirty();
         volumeImage.setImage(MainConfigWrapper.loadConfig().isMuted ? Finals.IMAGE_VOLUME_OFF : Finals.IMAGE_VOLUME_ON);
         PlaylistAudioManager.updateVolume();
     }
@@ -341,6 +353,7 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
                     detachImage.setImage(Finals.IMAGE_UNDETACHED);
                     MainConfigWrapper.loadConfig().detachedControlPosition.x = detachedControl.getX();
                     MainConfigWrapper.loadConfig().detachedControlPosition.y = detachedControl.getY();
+                    MainConfigWrapper.markDirty();
                     detachedControl = null;
                 });
 
@@ -366,6 +379,7 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
     protected void onShuffleButton() {
         Utilities.tryMovePlaylistToListTop(playlist);
         MainConfigWrapper.loadConfig().isShuffleActive = !MainConfigWrapper.loadConfig().isShuffleActive;
+        MainConfigWrapper.markDirty();
         ((ImageView) shuffleButton.getGraphic()).setImage(MainConfigWrapper.loadConfig().isShuffleActive ? Finals.IMAGE_SHUFFLE_ON : Finals.IMAGE_SHUFFLE_OFF);
         PlaylistAudioManager.initializeSongQueue(PlaylistAudioManager.getCurrentlyPlayingSong()); // When toggling shuffle, initialize a new song queue. If we are currently playing, the new queue shall always have the current song as the first one. If we are not playing, 'null' will be passed in, resulting in the normal queue initialization back.
         forwardButton.setDisable(PlaylistAudioManager.cannotMoveForwardInQueue());
@@ -377,6 +391,7 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
         Utilities.tryMovePlaylistToListTop(playlist);
         MainConfigWrapper.loadConfig().loopType++;
         if (MainConfigWrapper.loadConfig().loopType > MainConfigWrapper.LOOP_TYPE_SINGLE) MainConfigWrapper.loadConfig().loopType = MainConfigWrapper.LOOP_TYPE_NONE;
+        MainConfigWrapper.markDirty();
         ((ImageView) loopButton.getGraphic()).setImage(MainConfigWrapper.loadConfig().loopType == MainConfigWrapper.LOOP_TYPE_NONE ? Finals.IMAGE_LOOP_NONE : (MainConfigWrapper.loadConfig().loopType == MainConfigWrapper.LOOP_TYPE_ALL ? Finals.IMAGE_LOOP_ALL : Finals.IMAGE_LOOP_SINGLE));
         forwardButton.setDisable(PlaylistAudioManager.cannotMoveForwardInQueue());
         backwardButton.setDisable(PlaylistAudioManager.cannotMoveBackwardInQueue());
@@ -386,6 +401,7 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
     private void onBackButton() {
         try {
             PlaylistAudioManager.stop();
+            PlaybackClock.unsubscribe(clockSubscriber);
             Utilities.removeHeldListeners(this);
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/io/github/redstonemango/mangoplayer/fxml/playlistOverview/playlistOverview.fxml"));
             Scene scene = new Scene(loader.load());
@@ -413,18 +429,20 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
 
     @FXML
     protected void onSeekSliderReleased() {
+        seeking = false;
         PlaylistAudioManager.seek(Duration.seconds((long) durationSlider.getValue()), seekingWhilePausing);
         seekingWhilePausing = false;
         songsFilterField.requestFocus();
     }
     @FXML
     protected void onSeekSliderPressed() {
+        seeking = true; // The slider follows the mouse until released, not the clock
         if (!PlaylistAudioManager.isPaused()) PlaylistAudioManager.pauseOrResume();
         else seekingWhilePausing = true;
     }
     @FXML
     protected void onSeekSliderDrag() {
-        if (PlaylistAudioManager.isPlaying()) currentTimeLabel.setText(Utilities.formatDuration(Duration.seconds((long) durationSlider.getValue())) + " " + currentTimeLabel.getText().substring(currentTimeLabel.getText().indexOf("/")));
+        if (PlaylistAudioManager.isPlaying()) setCurrentTimeText(Utilities.formatDuration(Duration.seconds((long) durationSlider.getValue())) + " / " + totalTimeText);
     }
 
     @FXML
@@ -502,7 +520,6 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
         changedSongs.forEach((song, shallBeContained) -> {
             if (shallBeContained && !playlist.getSongs().contains(song)) {
                 playlist.getSongs().add(song);
-                songsView.getItems().add(song);
                 TextFieldAutoCompletion.autoCompletable(songsFilterField).getCompletions().add(song.getName());
                 lastAddedSong.set(song);
                 System.out.println("Added song '" + song.getName() + "' (" + song.getId() + ") to playlist '" + playlist.getName() + "' (" + playlist.getId() + ")");
@@ -511,6 +528,7 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
                 onSongDelete(song);
             }
         });
+        if (lastAddedSong.get() != null) TextFieldAutoCompletion.autoCompletable(songsFilterField).setCompletionWeigher(Utilities.listenCountWeigher(playlist.getSongs()));
         Platform.runLater(() -> {
             if (lastAddedSong.get() != null) {
                 System.out.println(lastAddedSong.get().getName());
@@ -544,7 +562,6 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
         alert.showAndWait();
         if (alert.getResult() != null && alert.getResult() == ButtonType.OK) {
             playlist.getSongs().remove(song);
-            songsView.getItems().remove(song);
             TextFieldAutoCompletion.autoCompletable(songsFilterField).getCompletions().remove(song.getName());
             System.out.println("Removed song '" + song.getName() + "' (" + song.getId() + ") from playlist '" + playlist.getName() + "' (" + playlist.getId() + ")");
         }
@@ -564,9 +581,7 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
 
     @Override
     public void onSongsSorted() {
-        Utilities.tryMovePlaylistToListTop(playlist);
-        playlist.getSongs().clear();
-        songsView.getItems().forEach(song -> playlist.getSongs().add(song));
+        Utilities.tryMovePlaylistToListTop(playlist); // The moved song was already applied to the playlist by the cell
     }
 
     @FXML
@@ -620,11 +635,11 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
         durationSlider.setMax(duration.toSeconds());
         songNameTooltip.setText(song.getName());
         controlsTitledPane.setText(song.getName());
-        File thumbnailFile = new File(Utilities.thumbnailPathFromSong(song));
-        Image thumbnail = thumbnailFile.exists() ? new Image(thumbnailFile.toURI().toString()) : Finals.IMAGE_THUMBNAIL_FALLBACK;
+        Image thumbnail = ThumbnailCache.thumbnailOrFallback(song, ThumbnailCache.SIZE_DETAILS);
         smallSongView.setImage(thumbnail);
         bigSongView.setImage(thumbnail);
-        currentTimeLabel.setText("00:00 / " + Utilities.formatDuration(duration.add(Duration.seconds(1))));
+        totalTimeText = Utilities.formatDuration(duration.add(Duration.seconds(1)));
+        setCurrentTimeText("00:00 / " + totalTimeText);
         addSongButton.setDisable(true);
         stopButton.setDisable(false);
 
@@ -657,7 +672,7 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
         smallSongView.setImage(Finals.IMAGE_NO_SONG);
         bigSongView.setImage(Finals.IMAGE_NO_SONG);
         ((ImageView) playButton.getGraphic()).setImage(Finals.IMAGE_PLAY);
-        Platform.runLater(() -> Platform.runLater(() -> currentTimeLabel.setText("--:-- / --:--")));
+        Platform.runLater(() -> Platform.runLater(() -> setCurrentTimeText("--:-- / --:--")));
 
         addSongButton.setDisable(false);
         songsFilterField.requestFocus();
@@ -674,12 +689,24 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
             cachedSongTime = null;
         }
     }
-    public void onProgressUpdate(Duration duration) {
-        if (!PlaylistAudioManager.isPlaying()) return;
-        duration = duration.add(Duration.seconds(1));
-        durationSlider.setValue(duration.toSeconds());
-        currentTimeLabel.setText(Utilities.formatDuration(duration) + " " + currentTimeLabel.getText().substring(currentTimeLabel.getText().indexOf("/")));
-        cachedSongTime = duration;
+    private void onClockTick(PlaybackClock.Snapshot snapshot) {
+        if (!PlaylistAudioManager.isPlaying() || seeking) return;
+        double seconds = snapshot.getCurrentSeconds() + 1;
+        durationSlider.setValue(seconds);
+        if (snapshot.hasSecondChanged()) {
+            Duration duration = Duration.seconds(seconds);
+            setCurrentTimeText(Utilities.formatDuration(duration) + " / " + totalTimeText);
+            cachedSongTime = duration;
+        }
+    }
+    private void setCurrentTimeText(String text) {
+        currentTimeLabel.setText(text);
+        if (detachedControl != null) { // Pushed instead of mirrored, as the detached control follows the clock on its own
+            ((PlayControlController) detachedControl.getLoader().getController()).setCurrentTimeText(text);
+        }
+    }
+    protected boolean isSeeking() {
+        return seeking;
     }
     public boolean shouldStopAfterSong() {
         return stopAfterSongButton.isSelected();
@@ -692,8 +719,7 @@ public class PlaylistScreenController implements IInitializable, ISongSelectable
         if (currentSong != null) {
             songNameTooltip.setText(currentSong.getName());
             controlsTitledPane.setText(currentSong.getName());
-            File thumbnailFile = new File(Utilities.thumbnailPathFromSong(currentSong));
-            Image thumbnail = thumbnailFile.exists() ? new Image(thumbnailFile.toURI().toString()) : Finals.IMAGE_THUMBNAIL_FALLBACK;
+            Image thumbnail = ThumbnailCache.thumbnailOrFallback(currentSong, ThumbnailCache.SIZE_DETAILS);
             smallSongView.setImage(thumbnail);
             bigSongView.setImage(thumbnail);
         }
@@ -6,7 +6,6 @@ import javafx.scene.control.*;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.FlowPane;
@@ -16,30 +15,25 @@ import io.github.redstonemango.mangoplayer.front.controller.interfaces.ISongPlay
 import io.github.redstonemango.mangoplayer.front.entryBases.PlaylistSongEntryBase;
 import io.github.redstonemango.mangoplayer.back.Finals;
 import io.github.redstonemango.mangoplayer.back.Song;
-import io.github.redstonemango.mangoplayer.back.Utilities;
+import io.github.redstonemango.mangoplayer.back.ThumbnailCache;
+import io.github.redstonemango.mangoplayer.back.ThumbnailLoader;
 
-import java.io.File;
 
 public class PlaylistSongEntry extends PlaylistSongEntryBase {
 
-    private final Song song;
+    private Song song;
     private final ISongPlayable controller;
     public final MenuItem deleteMenuItem;
+    private final String defaultStyle = getStyle();
 
-    public PlaylistSongEntry(final Song song, final ISongPlayable controller) {
-        this.song = song;
+    /**
+     * Creates an entry without a song. It has to be {@linkplain #bind(Song) bound} before it is shown
+     */
+    public PlaylistSongEntry(final ISongPlayable controller) {
         this.controller = controller;
 
-        // init name
-        nameLabel.setText(song.getName());
-
-        // init thumbnail. if no thumbnail exists, the default fallback image "thumbnail_fallback.png" will be used
-        File thumbnailFile = new File(Utilities.thumbnailPathFromSong(song));
-        if (thumbnailFile.exists()) {
-            ((ImageView) ((FlowPane) ((HBox) this.getLeft()).getChildren().get(1)).getChildren().getFirst()).setImage(new Image(thumbnailFile.toURI().toString()));
-        }
         // init button actions
-        deleteButton.setOnAction(_ -> controller.onSongDelete(song));
+        deleteButton.setOnAction(_ -> controller.onSongDelete(this.song));
 
         // init sorting
         unsortableTooltip.setShowDelay(Duration.millis(250));
@@ -50,9 +44,9 @@ public class PlaylistSongEntry extends PlaylistSongEntryBase {
         MenuItem playMenuItem = new MenuItem("Play");
         deleteMenuItem = new MenuItem("Delete");
         MenuItem editMenuItem = new MenuItem("Edit");
-        playMenuItem.setOnAction(_ -> controller.onSongPlay(song));
-        deleteMenuItem.setOnAction(_ -> controller.onSongDelete(song));
-        editMenuItem.setOnAction(_ -> controller.onSongEditorOpen(song));
+        playMenuItem.setOnAction(_ -> controller.onSongPlay(this.song));
+        deleteMenuItem.setOnAction(_ -> controller.onSongDelete(this.song));
+        editMenuItem.setOnAction(_ -> controller.onSongEditorOpen(this.song));
         contextMenu.getItems().addAll(playMenuItem, deleteMenuItem, editMenuItem);
         this.setOnMouseClicked(event -> {
             if (event.getButton() == MouseButton.SECONDARY) {
@@ -64,6 +58,19 @@ public class PlaylistSongEntry extends PlaylistSongEntryBase {
         });
     }
 
+    /**
+     * Shows another song in this entry, which is reused by its list cell
+     */
+    public void bind(Song song) {
+        this.song = song;
+
+        // init name
+        nameLabel.setText(song.getName());
+
+        // init thumbnail. if no thumbnail exists, the default fallback image "thumbnail_fallback.png" will be used
+        ThumbnailLoader.loadThumbnail((ImageView) ((FlowPane) ((HBox) this.getLeft()).getChildren().get(1)).getChildren().getFirst(), song.getId(), ThumbnailCache.SIZE_LIST);
+    }
+
     public Label getNameLabel() {
         return nameLabel;
     }
@@ -85,6 +92,10 @@ public class PlaylistSongEntry extends PlaylistSongEntryBase {
         }
     }
 
+    public void setPlaying(boolean playing) {
+        setStyle(playing ? Finals.STYLE_CODE_SONG_PLAYING : defaultStyle);
+    }
+
     public void setDeletable(boolean deletable) {
         deleteMenuItem.setDisable(!deletable);
     }
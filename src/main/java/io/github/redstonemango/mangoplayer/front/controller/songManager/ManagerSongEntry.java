@@ -3,7 +3,6 @@ package io.github.redstonemango.mangoplayer.front.controller.songManager;
 import io.github.redstonemango.mangoutils.OperatingSystem;
 import javafx.event.ActionEvent;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseButton;
 import javafx.stage.FileChooser;
@@ -11,31 +10,26 @@ import io.github.redstonemango.mangoplayer.front.controller.interfaces.ISongCont
 import io.github.redstonemango.mangoplayer.front.entryBases.ManagerSongEntryBase;
 import io.github.redstonemango.mangoplayer.back.Finals;
 import io.github.redstonemango.mangoplayer.back.Song;
+import io.github.redstonemango.mangoplayer.back.ThumbnailCache;
+import io.github.redstonemango.mangoplayer.back.ThumbnailLoader;
 import io.github.redstonemango.mangoplayer.back.Utilities;
 
 import java.io.File;
 
 public class ManagerSongEntry extends ManagerSongEntryBase {
 
-    private final Song song;
+    private Song song;
     private final ISongControllable controller;
     private final boolean selectionMode;
     private final MenuItem actionMenuItem;
 
-    public ManagerSongEntry(final Song song, final boolean selectionMode, final ISongControllable controller) {
-        this.song = song;
+    /**
+     * Creates an entry without a song. It has to be {@linkplain #bind(Song, boolean) bound} before it is shown
+     */
+    public ManagerSongEntry(final boolean selectionMode, final ISongControllable controller) {
         this.controller = controller;
         this.selectionMode = selectionMode;
 
-        // init name
-        nameLabel.setText(song.getName());
-
-        // init thumbnail. if no thumbnail exists, the default fallback image "thumbnail_fallback.png" will be used
-        File thumbnailFile = new File(Utilities.thumbnailPathFromSong(song));
-        if (thumbnailFile.exists()) {
-            thumbnailView.setImage(new Image(thumbnailFile.toURI().toString()));
-        }
-
         // init faces
         deleteButton.setVisible(!selectionMode);
         if (selectionMode) {
@@ -52,8 +46,8 @@ public class ManagerSongEntry extends ManagerSongEntryBase {
             actionButton.setSelected(!actionButton.isSelected());
             onAction(e);
         });
-        deleteMenuItem.setOnAction(_ -> controller.onSongEntryDelete(song));
-        browseMenuItem.setOnAction(_ -> controller.onSongEntryBrowse(song));
+        deleteMenuItem.setOnAction(_ -> controller.onSongEntryDelete(this.song));
+        browseMenuItem.setOnAction(_ -> controller.onSongEntryBrowse(this.song));
         exportMenuItem.setOnAction(_ -> export());
         contextMenu.getItems().add(actionMenuItem);
         if (!selectionMode) contextMenu.getItems().addAll(deleteMenuItem, browseMenuItem, exportMenuItem);
@@ -67,6 +61,23 @@ public class ManagerSongEntry extends ManagerSongEntryBase {
         });
     }
 
+    /**
+     * Shows another song in this entry, which is reused by its list cell
+     * @param selected Whether the action button is selected. Only relevant in selection mode
+     */
+    public void bind(Song song, boolean selected) {
+        this.song = song;
+
+        // init name
+        nameLabel.setText(song.getName());
+
+        // init thumbnail. if no thumbnail exists, the default fallback image "thumbnail_fallback.png" will be used
+        ThumbnailLoader.loadThumbnail(thumbnailView, song.getId(), ThumbnailCache.SIZE_LIST);
+
+        actionButton.setSelected(selectionMode && selected);
+        updateTexts();
+    }
+
     private void export() {
         FileChooser chooser = new FileChooser();
         chooser.setTitle("Export song");
@@ -84,7 +84,7 @@ public class SongDetailsController implements IInitializable, IProcessExecuteabl
             songNameField.getScene().getWindow().setOnCloseRequest(_ -> {}); // Override close listener
             if (!songNameField.getText().isBlank()) song.setName(songNameField.getText());
             if (testListenPlayer != null) {
-                testListenPlayer.stop();
+                MediaPlayerManager.dispose(testListenPlayer);
                 testListenPlayer = null;
             }
         });
@@ -95,9 +95,9 @@ public class SongDetailsController implements IInitializable, IProcessExecuteabl
         // Init width
         songNameField.setPrefWidth(songNameField.getScene().getWindow().getWidth() - 130);
 
-        File songThumbnailFile = new File(Utilities.thumbnailPathFromSong(song));
-        if (songThumbnailFile.exists()) {
-            songThumbnailView.setImage(new Image(songThumbnailFile.toURI().toString()));
+        Image songThumbnail = ThumbnailCache.thumbnail(song.getId(), ThumbnailCache.SIZE_DETAILS);
+        if (songThumbnail != null) {
+            songThumbnailView.setImage(songThumbnail);
         }
 
         playStatLabel.setText(song.getListenCount() + "x");
@@ -122,8 +122,8 @@ public class SongDetailsController implements IInitializable, IProcessExecuteabl
         File audioFile = new File(Utilities.audioPathFromSong(song));
         if (audioFile.exists()) {
             try {
-                songMedia = new Media(audioFile.toURI().toString());
-                testListenPlayer = new MediaPlayer(songMedia);
+                testListenPlayer = MediaPlayerManager.create(audioFile);
+                songMedia = testListenPlayer.getMedia();
             }
             catch (MediaException e) {
                 System.err.println("Media error instantiating audio playback objects for volume test: " + e);
@@ -147,16 +147,17 @@ public class SongDetailsController implements IInitializable, IProcessExecuteabl
             testListenPlayer.play();
         });
 
-        testListenPlayer.currentTimeProperty().addListener((_, _, currentTime) -> {
+        MediaPlayerManager.addCurrentTimeListener(testListenPlayer, (_, _, currentTime) -> {
             double currentMs = currentTime.toMillis();
             if (currentMs > msMiddleSectionStart + sMiddleSectionBounds * 1000) { // Middle section ended
-                testListenPlayer.stop();
+                MediaPlayerManager.dispose(testListenPlayer);
                 testListenPlayer = null;
                 testListenButtonIcon.setImage(Finals.IMAGE_PLAY_THIS);
             }
         });
         testListenPlayer.setOnEndOfMedia(() -> {
             testListenButtonIcon.setImage(Finals.IMAGE_PLAY_THIS);
+            MediaPlayerManager.dispose(testListenPlayer);
             testListenPlayer = null;
         });
         return true;
@@ -170,7 +171,7 @@ public class SongDetailsController implements IInitializable, IProcessExecuteabl
             }
         }
         else {
-            testListenPlayer.stop();
+            MediaPlayerManager.dispose(testListenPlayer);
             testListenPlayer = null;
             testListenButtonIcon.setImage(Finals.IMAGE_PLAY_THIS);
         }
@@ -182,7 +183,7 @@ public class SongDetailsController implements IInitializable, IProcessExecuteabl
         songNameField.getScene().getWindow().setOnCloseRequest(_ -> {}); // Override close listener
         song.setName(songNameField.getText());
         if (testListenPlayer != null) {
-            testListenPlayer.stop();
+            MediaPlayerManager.dispose(testListenPlayer);
             testListenPlayer = null;
         }
 
@@ -321,13 +322,8 @@ public class SongDetailsController implements IInitializable, IProcessExecuteabl
     @Override
     public void processFinished(Object source, @Nullable Object additionalData, boolean success, int processType) {
         if (source instanceof Song thumbnailOwnerSong && processType == THUMBNAIL_DOWNLOAD_PROCESS_TYPE) {
-            File songThumbnailFile = new File(Utilities.thumbnailPathFromSong(thumbnailOwnerSong));
-            if (songThumbnailFile.exists()) {
-                songThumbnailView.setImage(new Image(songThumbnailFile.toURI().toString()));
-            }
-            else {
-                songThumbnailView.setImage(new Image(getClass().getResourceAsStream("/io/github/redstonemango/mangoplayer/images/thumbnail_fallback.png")));
-            }
+            ThumbnailVariants.generate(thumbnailOwnerSong.getId()); // The thumbnail was removed, replaced or regenerated. Also invalidates the cached images
+            songThumbnailView.setImage(ThumbnailCache.thumbnailOrFallback(thumbnailOwnerSong, ThumbnailCache.SIZE_DETAILS));
         }
     }
 }
@@ -6,7 +6,9 @@ import io.github.redstonemango.mangoplayer.front.controller.useAnalyser.SongData
 import io.github.redstonemango.mangoplayer.front.controller.waitScreen.WaitScreenScene;
 import io.github.redstonemango.mangoplayer.back.config.PlaylistConfigWrapper;
 import io.github.redstonemango.mangoutils.OperatingSystem;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.fxml.FXML;
 import javafx.scene.Cursor;
 import javafx.scene.control.*;
@@ -53,6 +55,10 @@ public class SongListController implements IInitializable, ISongControllable {
     private @Nullable Playlist parent = null;
     private boolean actionOccupied = false;
     private int ytDlpAvailableState = -1; // -1: Currently indexing, 0: Nothing existing, 1: Only dlp, 2: Only ffmpeg, 3: All existing
+    private final PauseTransition filterDebounce = new PauseTransition(Duration.millis(150));
+    private String appliedFilter = "";
+    private @Nullable SongSearchIndex.SearchResult appliedFilterResults = null; // 'null' if the shown songs do not match 'appliedFilter' anymore
+    private int filterGeneration = 0;
 
     public void setActionOccupied(boolean actionOccupied) {
         this.actionOccupied = actionOccupied;
@@ -80,21 +86,23 @@ public class SongListController implements IInitializable, ISongControllable {
 
         updateYtDlpAvailable();
 
-        Utilities.applyListViewCellFactory(songsView, song -> {
-            ManagerSongEntry entry = new ManagerSongEntry(song, selectionMode, this);
-            double width = songFilterField.getScene().getWindow().getWidth();
-            entry.setPrefWidth(width - 18);
-            entry.getNameLabel().setPrefWidth(width - 214);
+        Utilities.applyRecyclingListViewCellFactory(songsView, () -> {
+            ManagerSongEntry entry = new ManagerSongEntry(selectionMode, this);
+            ReadOnlyDoubleProperty width = songFilterField.getScene().getWindow().widthProperty();
+            entry.prefWidthProperty().bind(width.subtract(18));
+            entry.getNameLabel().prefWidthProperty().bind(width.subtract(214));
+            return entry;
+        }, (entry, song) -> {
+            boolean selected = false;
             if (selectionMode && parent != null) {
-                boolean selected = parent.getSongs().contains(song);
+                selected = parent.getSongs().contains(song);
                 if (songSelectionData.containsKey(song)) {
                     selected = songSelectionData.get(song);
                 }
-                entry.getActionButton().setSelected(selected);
-                entry.updateTexts();
             }
-            return entry;
+            entry.bind(song, selected);
         });
+        ThumbnailLoader.installPrefetcher(songsView, song -> ThumbnailLoader.prefetchThumbnail(song.getId(), ThumbnailCache.SIZE_LIST));
 
         songFilterTooltip.setShowDelay(Duration.millis(50));
         songImportTooltip.setShowDelay(Duration.millis(150));
@@ -122,15 +130,8 @@ public class SongListController implements IInitializable, ISongControllable {
                 songFilterField.getScene().getWindow().hide();
             }
         });
-        Utilities.applyHeldPropertyListener(this, songFilterField.getScene().getWindow().widthProperty(), (_, _, _) -> songsView.refresh());
-        songFilterField.textProperty().addListener((_, _, newValue) -> {
-            songsView.getItems().clear();
-            SongConfigWrapper.loadConfig().songs.forEach((_, song) -> {
-                if (song.getName().toLowerCase(Locale.ROOT).contains(newValue.toLowerCase(Locale.ROOT))) {
-                    songsView.getItems().add(song);
-                }
-            });
-        });
+        filterDebounce.setOnFinished(_ -> applyFilter(songFilterField.getText()));
+        songFilterField.textProperty().addListener((_, _, _) -> filterDebounce.playFromStart());
 
         this.sortAndRepaintSongs();
     }
@@ -290,7 +291,7 @@ public class SongListController implements IInitializable, ISongControllable {
                 List<SongDataRepresentation> songData = new ArrayList<>();
                 List<PlaylistDataRepresentation> playlistData = new ArrayList<>();
 
-                SongConfigWrapper.loadConfig().songs.forEach((_, song) -> songData.add(new SongDataRepresentation(song)));
+                SongConfigWrapper.loadConfig().captureSongs().forEach((_, song) -> songData.add(new SongDataRepresentation(song)));
                 PlaylistConfigWrapper.loadConfig().playlists.forEach(playlist -> playlistData.add(new PlaylistDataRepresentation(playlist)));
 
                 AnalyserScene analyserScene = AnalyserScene.createNewScene(
@@ -344,10 +345,36 @@ public class SongListController implements IInitializable, ISongControllable {
 
     public void sortAndRepaintSongs() {
         Utilities.sortSongs();
-        songsView.getItems().clear();
+        filterGeneration++; // Drop the result of a search still running for the old song list
+        appliedFilter = "";
+        appliedFilterResults = null;
+
+        Collection<Song> songs = SongConfigWrapper.loadConfig().songs.values();
+        List<String> names = new ArrayList<>(songs.size());
+        songs.forEach(song -> names.add(song.getName()));
+        TextFieldAutoCompletion.autoCompletable(songFilterField).setCompletions(names).setCompletionWeigher(Utilities.listenCountWeigher(songs));
+        if (songFilterField.getText().isEmpty()) {
+            songsView.getItems().setAll(songs);
+        }
+        else {
+            applyFilter(songFilterField.getText()); // Keeps showing the previous matches until the new ones replace them, instead of flashing the whole library
+        }
+    }
 
-        SongConfigWrapper.loadConfig().songs.forEach((_, song) -> TextFieldAutoCompletion.autoCompletable(songFilterField).getCompletions().add(song.getName()));
-        songsView.getItems().addAll(SongConfigWrapper.loadConfig().songs.values());
+    /**
+     * Searches the {@link SongSearchIndex} in the background and shows the result in one update. Results of outdated queries are dropped.
+     */
+    private void applyFilter(String query) {
+        int generation = ++filterGeneration;
+        SongSearchIndex.searchAsync(query, appliedFilter, appliedFilterResults).thenAccept(results -> Platform.runLater(() -> {
+            if (generation != filterGeneration) return;
+            appliedFilter = query;
+            appliedFilterResults = results;
+            songsView.getItems().setAll(results.songs());
+        })).exceptionally(e -> {
+            System.err.println("Unable to filter songs by '" + query + "': " + e);
+            return null;
+        });
     }
 
     public void highlightSong(Song song) {
@@ -1,15 +1,17 @@
 package io.github.redstonemango.mangoplayer.front.controller.useAnalyser;
 
 import io.github.redstonemango.mangoplayer.front.ComboBoxSearching;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.image.Image;
 import io.github.redstonemango.mangoplayer.back.Finals;
 import io.github.redstonemango.mangoplayer.back.Playlist;
+import io.github.redstonemango.mangoplayer.back.ThumbnailCache;
 import io.github.redstonemango.mangoplayer.back.Utilities;
+import javafx.util.Duration;
 
-import java.io.File;
-import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 public class PlaylistDataRepresentation implements ComboBoxSearching.ISearchComparable {
     private final SimpleStringProperty name;
@@ -25,22 +27,24 @@ public class PlaylistDataRepresentation implements ComboBoxSearching.ISearchComp
         this.name = new SimpleStringProperty(playlist.getName());
         this.playedSongCount = new SimpleStringProperty(playlist.getPlayedSongCount() + "x");
         this.totalPlayTime = new SimpleStringProperty(Utilities.formatDuration(playlist.getPlayTime()));
-        this.totalDuration = new SimpleStringProperty(Utilities.formatDuration(playlist.computeTotalDuration()));
-        int songCountInt = playlist.getSongs().size();
+        CompletableFuture<Duration> totalDurationRequest = playlist.requestTotalDuration();
+        if (totalDurationRequest.isDone()) {
+            this.totalDuration = new SimpleStringProperty(Utilities.formatDuration(totalDurationRequest.join()));
+        }
+        else { // Filled in once the metadata indexer read the remaining songs
+            this.totalDuration = new SimpleStringProperty("...");
+            totalDurationRequest.thenAccept(duration -> Platform.runLater(() -> totalDuration.set(Utilities.formatDuration(duration))));
+        }
+        int songCountInt = playlist.getSongCount();
         this.songCount = new SimpleStringProperty(songCountInt == 0 ? "No songs" : (songCountInt == 1 ? "1 song" : songCountInt + " songs"));
 
-        File playlistGraphicFile = new File(Utilities.graphicPathFromPlaylist(playlist));
-        if (playlistGraphicFile.exists()) {
-            graphic = new SimpleObjectProperty<>(new Image(playlistGraphicFile.toURI().toString()));
+        Image playlistGraphic = ThumbnailCache.playlistGraphic(playlist, ThumbnailCache.SIZE_LIST);
+        if (playlistGraphic != null) {
+            graphic = new SimpleObjectProperty<>(playlistGraphic);
         }
-        else if (!playlist.getSongs().isEmpty()) {
-            File songThumbnail = new File(Utilities.thumbnailPathFromSong(playlist.getSongs().getFirst()));
-            if (songThumbnail.exists()) {
-                graphic = new SimpleObjectProperty<>(new Image(songThumbnail.toURI().toString()));
-            }
-            else {
-                graphic = new SimpleObjectProperty<>(Finals.IMAGE_THUMBNAIL_FALLBACK);
-            }
+        else if (playlist.getFirstSongId() != null) {
+            Image songThumbnail = ThumbnailCache.thumbnail(playlist.getFirstSongId(), ThumbnailCache.SIZE_LIST);
+            graphic = new SimpleObjectProperty<>(songThumbnail == null ? Finals.IMAGE_THUMBNAIL_FALLBACK : songThumbnail);
         }
         else {
             graphic = new SimpleObjectProperty<>(Finals.IMAGE_NO_SONG);
@@ -76,8 +80,8 @@ public class PlaylistDataRepresentation implements ComboBoxSearching.ISearchComp
     }
 
     @Override
-    public boolean matches(String typedText) {
-        return name.get().toLowerCase(Locale.ROOT).contains(typedText.toLowerCase());
+    public String searchText() {
+        return name.get();
     }
 
     @Override
@@ -1,16 +1,19 @@
 package io.github.redstonemango.mangoplayer.front.controller.useAnalyser;
 
 import io.github.redstonemango.mangoplayer.front.ComboBoxSearching;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.image.Image;
-import io.github.redstonemango.mangoplayer.back.Finals;
+import io.github.redstonemango.mangoplayer.back.MetadataIndexer;
 import io.github.redstonemango.mangoplayer.back.Song;
+import io.github.redstonemango.mangoplayer.back.ThumbnailCache;
 import io.github.redstonemango.mangoplayer.back.Utilities;
+import io.github.redstonemango.mangoplayer.back.config.AudioMetadataCache;
 import javafx.util.Duration;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
-import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 public class SongDataRepresentation implements ComboBoxSearching.ISearchComparable {
     private final SimpleStringProperty name;
@@ -26,16 +29,20 @@ public class SongDataRepresentation implements ComboBoxSearching.ISearchComparab
         this.listenCount = new SimpleStringProperty(song.getListenCount() + "x");
         this.useCount = new SimpleStringProperty(song.summarizeUseCount() + "x");
 
-        Duration dur = song.loadDuration();
-        this.duration = new SimpleStringProperty(dur == null ? "??" : Utilities.formatDuration(dur));
-
-        File thumbnailExpected = new File(Utilities.thumbnailPathFromSong(song));
-        if (thumbnailExpected.exists()) {
-            this.thumbnail = new SimpleObjectProperty<>(new Image(thumbnailExpected.toURI().toString()));
+        CompletableFuture<AudioMetadataCache.@Nullable AudioMetadata> metadataRequest = MetadataIndexer.request(song); // Does not block the analyser on songs the background scan did not reach yet
+        if (metadataRequest.isDone()) {
+            this.duration = new SimpleStringProperty(formatDuration(metadataRequest.join()));
         }
         else {
-            this.thumbnail = new SimpleObjectProperty<>(Finals.IMAGE_THUMBNAIL_FALLBACK);
+            this.duration = new SimpleStringProperty("...");
+            metadataRequest.thenAccept(metadata -> Platform.runLater(() -> duration.set(formatDuration(metadata))));
         }
+
+        this.thumbnail = new SimpleObjectProperty<>(ThumbnailCache.thumbnailOrFallback(song, ThumbnailCache.SIZE_LIST));
+    }
+
+    private static String formatDuration(AudioMetadataCache.@Nullable AudioMetadata metadata) {
+        return metadata == null ? "??" : Utilities.formatDuration(Duration.seconds(metadata.durationSeconds()));
     }
 
     public SimpleStringProperty nameProperty() {
@@ -63,8 +70,8 @@ public class SongDataRepresentation implements ComboBoxSearching.ISearchComparab
     }
 
     @Override
-    public boolean matches(String typedText) {
-        return name.get().toLowerCase(Locale.ROOT).contains(typedText.toLowerCase());
+    public String searchText() {
+        return name.get();
     }
 
     @Override
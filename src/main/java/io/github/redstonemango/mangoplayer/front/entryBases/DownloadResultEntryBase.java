@@ -3,11 +3,11 @@ package io.github.redstonemango.mangoplayer.front.entryBases;
 import javafx.scene.Cursor;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.text.Font;
+import io.github.redstonemango.mangoplayer.back.Finals;
 
 public abstract class DownloadResultEntryBase extends BorderPane {
 
@@ -51,7 +51,7 @@ public abstract class DownloadResultEntryBase extends BorderPane {
         imageView.setFitWidth(25.0);
         imageView.setPickOnBounds(true);
         imageView.setPreserveRatio(true);
-        imageView.setImage(new Image(getClass().getResource("/io/github/redstonemango/mangoplayer/images/select.png").toExternalForm()));
+        imageView.setImage(Finals.IMAGE_SELECT);
         button.setGraphic(imageView);
         setRight(anchorPane);
 
@@ -3,12 +3,12 @@ package io.github.redstonemango.mangoplayer.front.entryBases;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ToggleButton;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.text.Font;
+import io.github.redstonemango.mangoplayer.back.Finals;
 
 public abstract class ManagerSongEntryBase extends BorderPane {
 
@@ -52,7 +52,7 @@ public abstract class ManagerSongEntryBase extends BorderPane {
         thumbnailView.setFitWidth(48.0);
         thumbnailView.setPickOnBounds(true);
         thumbnailView.setPreserveRatio(true);
-        thumbnailView.setImage(new Image(getClass().getResource("/io/github/redstonemango/mangoplayer/images/thumbnail_fallback.png").toExternalForm()));
+        thumbnailView.setImage(Finals.IMAGE_THUMBNAIL_FALLBACK);
         setLeft(flowPane);
 
         BorderPane.setAlignment(anchorPane, javafx.geometry.Pos.CENTER);
@@ -82,7 +82,7 @@ public abstract class ManagerSongEntryBase extends BorderPane {
         imageView.setFitWidth(35.0);
         imageView.setPickOnBounds(true);
         imageView.setPreserveRatio(true);
-        imageView.setImage(new Image(getClass().getResource("/io/github/redstonemango/mangoplayer/images/edit.png").toExternalForm()));
+        imageView.setImage(Finals.IMAGE_EDIT);
         actionButton.setGraphic(imageView);
 
         deleteButton.setFocusTraversable(false);
@@ -97,7 +97,7 @@ public abstract class ManagerSongEntryBase extends BorderPane {
         imageView0.setFitWidth(35.0);
         imageView0.setPickOnBounds(true);
         imageView0.setPreserveRatio(true);
-        imageView0.setImage(new Image(getClass().getResource("/io/github/redstonemango/mangoplayer/images/delete.png").toExternalForm()));
+        imageView0.setImage(Finals.IMAGE_DELETE);
         deleteButton.setGraphic(imageView0);
         setRight(anchorPane0);
 
@@ -2,12 +2,12 @@ package io.github.redstonemango.mangoplayer.front.entryBases;
 
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.text.Font;
+import io.github.redstonemango.mangoplayer.back.Finals;
 
 public abstract class PlaylistEntryBase extends BorderPane {
 
@@ -77,7 +77,7 @@ public abstract class PlaylistEntryBase extends BorderPane {
         imageView.setFitWidth(33.0);
         imageView.setPickOnBounds(true);
         imageView.setPreserveRatio(true);
-        imageView.setImage(new Image(getClass().getResource("/io/github/redstonemango/mangoplayer/images/delete.png").toExternalForm()));
+        imageView.setImage(Finals.IMAGE_DELETE);
         button.setGraphic(imageView);
 
         button0.setFocusTraversable(false);
@@ -92,7 +92,7 @@ public abstract class PlaylistEntryBase extends BorderPane {
         imageView0.setFitWidth(33.0);
         imageView0.setPickOnBounds(true);
         imageView0.setPreserveRatio(true);
-        imageView0.setImage(new Image(getClass().getResource("/io/github/redstonemango/mangoplayer/images/select.png").toExternalForm()));
+        imageView0.setImage(Finals.IMAGE_SELECT);
         button0.setGraphic(imageView0);
         setRight(anchorPane0);
 
@@ -106,7 +106,7 @@ public abstract class PlaylistEntryBase extends BorderPane {
         graphicView.setFitWidth(48.0);
         graphicView.setPickOnBounds(true);
         graphicView.setPreserveRatio(true);
-        graphicView.setImage(new Image(getClass().getResource("/io/github/redstonemango/mangoplayer/images/no_song_playing.png").toExternalForm()));
+        graphicView.setImage(Finals.IMAGE_NO_SONG);
         setLeft(flowPane);
 
         anchorPane.getChildren().add(nameLabel);
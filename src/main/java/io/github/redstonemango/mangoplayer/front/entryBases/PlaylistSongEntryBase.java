@@ -4,7 +4,6 @@ import javafx.scene.Cursor;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.Tooltip;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.BorderPane;
@@ -13,6 +12,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import io.github.redstonemango.mangoplayer.back.Finals;
 
 public abstract class PlaylistSongEntryBase extends BorderPane {
 
@@ -71,7 +71,7 @@ public abstract class PlaylistSongEntryBase extends BorderPane {
         sortImageView.setFitWidth(16.0);
         sortImageView.setPickOnBounds(true);
         sortImageView.setPreserveRatio(true);
-        sortImageView.setImage(new Image(getClass().getResource("/io/github/redstonemango/mangoplayer/images/sort_entry_on.png").toExternalForm()));
+        sortImageView.setImage(Finals.IMAGE_SORT_ENTRY_ON);
         sortLabel.setGraphic(sortImageView);
 
         unsortableTooltip.setContentDisplay(javafx.scene.control.ContentDisplay.GRAPHIC_ONLY);
@@ -93,7 +93,7 @@ public abstract class PlaylistSongEntryBase extends BorderPane {
         imageView.setFitWidth(48.0);
         imageView.setPickOnBounds(true);
         imageView.setPreserveRatio(true);
-        imageView.setImage(new Image(getClass().getResource("/io/github/redstonemango/mangoplayer/images/thumbnail_fallback.png").toExternalForm()));
+        imageView.setImage(Finals.IMAGE_THUMBNAIL_FALLBACK);
         setLeft(hBox);
 
         BorderPane.setAlignment(anchorPane, javafx.geometry.Pos.CENTER);
@@ -122,7 +122,7 @@ public abstract class PlaylistSongEntryBase extends BorderPane {
         imageView0.setFitWidth(35.0);
         imageView0.setPickOnBounds(true);
         imageView0.setPreserveRatio(true);
-        imageView0.setImage(new Image(getClass().getResource("/io/github/redstonemango/mangoplayer/images/delete.png").toExternalForm()));
+        imageView0.setImage(Finals.IMAGE_DELETE);
         deleteButton.setGraphic(imageView0);
 
         button.setFocusTraversable(false);
@@ -137,7 +137,7 @@ public abstract class PlaylistSongEntryBase extends BorderPane {
         imageView1.setFitWidth(35.0);
         imageView1.setPickOnBounds(true);
         imageView1.setPreserveRatio(true);
-        imageView1.setImage(new Image(getClass().getResource("/io/github/redstonemango/mangoplayer/images/play_this.png").toExternalForm()));
+        imageView1.setImage(Finals.IMAGE_PLAY_THIS);
         button.setGraphic(imageView1);
         setRight(anchorPane0);
 
@@ -0,0 +1,85 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import javafx.application.Platform;
+import javafx.scene.media.MediaPlayer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plays the start of thousands of short audio files, each with its own player, and checks that no player or media object
+ * outlives its playback and that the heap does not grow with the number of players.<br>
+ * Opt-in, as it needs audio files and takes minutes: {@code mvn test -Dtest.excludedGroups= -Dtest=MediaPlayerManagerSoakTest -Dmangoplayer.soakAudioDir=<directory of short mp3 files>}.
+ * {@code -Dmangoplayer.soakIterations} sets the number of players (2000 by default).
+ */
+@Tag("soak")
+@EnabledIfSystemProperty(named = "mangoplayer.soakAudioDir", matches = ".+")
+public class MediaPlayerManagerSoakTest {
+    private static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+
+    @BeforeAll
+    static void startToolkit() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException _) { // Already started by another test
+            started.countDown();
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS), "JavaFX toolkit did not start");
+    }
+
+    @Test
+    void playersAndMediaAreReleased() throws InterruptedException {
+        File[] files = new File(System.getProperty("mangoplayer.soakAudioDir")).listFiles((_, name) -> name.endsWith(".mp3"));
+        assertNotNull(files, "Soak audio directory does not exist");
+        List<File> audioFiles = Arrays.asList(files);
+        assertFalse(audioFiles.isEmpty(), "Soak audio directory does not contain mp3 files");
+        int iterations = Integer.getInteger("mangoplayer.soakIterations", 2000);
+
+        long livePlayersBefore = MediaPlayerManager.getLivePlayers();
+        long liveMediaBefore = MediaPlayerManager.getLiveMedia();
+        Runtime runtime = Runtime.getRuntime();
+        long heapAfterWarmup = 0;
+        int failures = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (i == Math.min(100, iterations / 10)) heapAfterWarmup = usedHeapAfterGc(runtime); // Ignore the classes and native buffers loaded by the first players
+
+            MediaPlayer player = MediaPlayerManager.create(audioFiles.get(i % audioFiles.size()));
+            CountDownLatch ready = new CountDownLatch(1);
+            player.setOnReady(ready::countDown);
+            MediaPlayerManager.addCurrentTimeListener(player, (_, _, _) -> {});
+            if (ready.await(5, TimeUnit.SECONDS)) {
+                player.setVolume(0);
+                player.play();
+                Thread.sleep(20);
+            }
+            else {
+                failures++;
+            }
+            assertEquals(livePlayersBefore + 1, MediaPlayerManager.getLivePlayers(), "More than one soak player alive");
+            MediaPlayerManager.dispose(player);
+        }
+        long heapGrowth = usedHeapAfterGc(runtime) - heapAfterWarmup;
+        System.out.println("Media player soak: " + iterations + " players (" + failures + " did not get ready), heap grew by " + heapGrowth / 1024 + "KB");
+
+        assertEquals(livePlayersBefore, MediaPlayerManager.getLivePlayers(), "Players leaked");
+        assertEquals(liveMediaBefore, MediaPlayerManager.getLiveMedia(), "Media objects leaked");
+        assertTrue(failures < iterations / 10, "Too many players did not get ready: " + failures);
+        assertTrue(heapGrowth < MAX_HEAP_GROWTH_BYTES, "Heap grew by " + heapGrowth / 1024 + "KB");
+    }
+
+    private static long usedHeapAfterGc(Runtime runtime) throws InterruptedException {
+        System.gc();
+        Thread.sleep(100);
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
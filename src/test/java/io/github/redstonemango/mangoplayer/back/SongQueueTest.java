@@ -0,0 +1,223 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SongQueueTest {
+
+    private static List<Song> songs(int count) {
+        List<Song> songs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            songs.add(new Song("song-" + i, "Song " + i, null, 0, 1));
+        }
+        return songs;
+    }
+
+    /**
+     * Advances until the queue ends and returns all songs it played, including the current one.
+     */
+    private static List<Song> playToEnd(SongQueue queue) {
+        List<Song> played = new ArrayList<>();
+        played.add(queue.current());
+        Song next;
+        while ((next = queue.advance(false)) != null) {
+            played.add(next);
+        }
+        return played;
+    }
+
+    @Test
+    void shuffledRoundPlaysEverySongOnce() {
+        IndexedSongList list = new IndexedSongList(songs(50));
+        SongQueue queue = new SongQueue(new Random(1));
+        queue.reset(list, true, null);
+
+        List<Song> played = playToEnd(queue);
+        assertEquals(50, played.size());
+        assertEquals(new HashSet<>(list), new HashSet<>(played));
+    }
+
+    @Test
+    void shuffledRoundStartsWithRequestedSong() {
+        IndexedSongList list = new IndexedSongList(songs(20));
+        SongQueue queue = new SongQueue(new Random(2));
+        queue.reset(list, true, list.get(7));
+
+        List<Song> played = playToEnd(queue);
+        assertEquals(list.get(7), played.getFirst());
+        assertEquals(20, new HashSet<>(played).size());
+    }
+
+    @Test
+    void wrapNeverRepeatsLastSong() {
+        IndexedSongList list = new IndexedSongList(songs(3));
+        SongQueue queue = new SongQueue(new Random(3));
+        queue.reset(list, true, null);
+        for (int round = 0; round < 200; round++) {
+            Song last = playToEnd(queue).getLast();
+            Song first = queue.advance(true);
+            assertNotNull(first);
+            assertNotEquals(last, first, "Song repeated across a wrap in round " + round);
+        }
+    }
+
+    @Test
+    void everyRoundAfterWrapPlaysEverySongOnce() {
+        IndexedSongList list = new IndexedSongList(songs(10));
+        SongQueue queue = new SongQueue(new Random(4));
+        queue.reset(list, true, null);
+        playToEnd(queue);
+        for (int round = 0; round < 20; round++) {
+            List<Song> played = new ArrayList<>();
+            played.add(queue.advance(true));
+            played.addAll(playToEnd(queue).subList(1, 10));
+            assertEquals(new HashSet<>(list), new HashSet<>(played), "Round " + round + " did not play every song once");
+        }
+    }
+
+    @Test
+    void peekThenAdvanceReturnsSameSong() {
+        for (boolean shuffled : new boolean[]{false, true}) {
+            IndexedSongList list = new IndexedSongList(songs(7));
+            SongQueue queue = new SongQueue(new Random(5));
+            queue.reset(list, shuffled, null);
+            for (int i = 0; i < 50; i++) {
+                Song peeked = queue.peekNext(true);
+                assertEquals(peeked, queue.peekNext(true), "Peeking twice differs");
+                assertEquals(peeked, queue.advance(true), "Advance differs from peek (shuffled: " + shuffled + ")");
+            }
+        }
+    }
+
+    @Test
+    void historyGoesBackAndForward() {
+        IndexedSongList list = new IndexedSongList(songs(30));
+        SongQueue queue = new SongQueue(new Random(6));
+        queue.reset(list, true, null);
+        List<Song> played = new ArrayList<>();
+        played.add(queue.current());
+        for (int i = 0; i < 10; i++) played.add(queue.advance(false));
+
+        for (int i = played.size() - 2; i >= 0; i--) {
+            assertEquals(played.get(i), queue.retreat(false));
+        }
+        assertNull(queue.retreat(false));
+        assertFalse(queue.hasPrevious());
+        for (int i = 1; i < played.size(); i++) {
+            assertEquals(played.get(i), queue.advance(false), "Going forward again does not replay the history");
+        }
+    }
+
+    @Test
+    void historyStaysConsistentAfterTrimming() {
+        IndexedSongList list = new IndexedSongList(songs(100));
+        SongQueue queue = new SongQueue(new Random(7));
+        queue.reset(list, true, null);
+        List<Song> played = new ArrayList<>();
+        played.add(queue.current());
+        int steps = 2 * SongQueue.MAX_HISTORY + 500; // Trims the history at least once
+        for (int i = 0; i < steps; i++) played.add(queue.advance(true));
+
+        int back = SongQueue.MAX_HISTORY - 1;
+        for (int i = 1; i <= back; i++) {
+            assertEquals(played.get(played.size() - 1 - i), queue.retreat(false), "Wrong song " + i + " steps back");
+        }
+        for (int i = back - 1; i >= 0; i--) {
+            assertEquals(played.get(played.size() - 1 - i), queue.advance(true), "Wrong song when going forward again");
+        }
+    }
+
+    @Test
+    void songsAddedMidRoundArePlayedOnce() {
+        List<Song> all = songs(15);
+        IndexedSongList list = new IndexedSongList(all.subList(0, 10));
+        SongQueue queue = new SongQueue(new Random(8));
+        queue.reset(list, true, null);
+        List<Song> played = new ArrayList<>();
+        played.add(queue.current());
+        for (int i = 0; i < 4; i++) played.add(queue.advance(false));
+
+        list.addAll(all.subList(10, 15));
+        played.addAll(playToEnd(queue).subList(1, 11));
+        assertEquals(15, played.size());
+        assertEquals(new HashSet<>(all), new HashSet<>(played));
+    }
+
+    @Test
+    void songsRemovedMidRoundAreSkipped() {
+        IndexedSongList list = new IndexedSongList(songs(20));
+        SongQueue queue = new SongQueue(new Random(9));
+        queue.reset(list, true, null);
+        List<Song> played = new ArrayList<>();
+        played.add(queue.current());
+        for (int i = 0; i < 5; i++) played.add(queue.advance(false));
+        Song peeked = queue.peekNext(false); // Already drawn into the history
+
+        Set<Song> removed = new HashSet<>();
+        removed.add(peeked);
+        removed.add(played.get(2));
+        for (Song song : list) {
+            if (removed.size() == 5) break;
+            if (!played.contains(song)) removed.add(song);
+        }
+        list.removeAll(removed);
+
+        List<Song> rest = playToEnd(queue).subList(1, 20 - removed.size() - played.size() + 2);
+        for (Song song : rest) assertFalse(removed.contains(song), "Removed song " + song.getId() + " was played");
+        assertEquals(20 - removed.size() - played.size() + 1, rest.size());
+        Set<Song> allPlayed = new HashSet<>(played);
+        allPlayed.addAll(rest);
+        assertTrue(allPlayed.containsAll(list), "Not every remaining song was played");
+
+        while (queue.hasPrevious()) { // Going back skips the removed song as well
+            assertFalse(removed.contains(queue.retreat(false)), "Went back to a removed song");
+        }
+    }
+
+    @Test
+    void movedSongIsNotRepeated() {
+        IndexedSongList list = new IndexedSongList(songs(12));
+        SongQueue queue = new SongQueue(new Random(10));
+        queue.reset(list, true, null);
+        Song first = queue.current();
+        list.move(list.indexOf(first), 11);
+
+        List<Song> played = playToEnd(queue);
+        assertEquals(12, played.size());
+        assertEquals(12, new HashSet<>(played).size());
+    }
+
+    @Test
+    void removingCurrentSongInPlaylistOrderContinuesAtItsPosition() {
+        List<Song> songs = songs(10);
+        IndexedSongList list = new IndexedSongList(songs);
+        SongQueue queue = new SongQueue(new Random(11));
+        queue.reset(list, false, songs.get(3));
+        assertEquals(songs.get(3), queue.current());
+
+        list.remove(songs.get(3));
+        assertEquals(songs.get(4), queue.peekNext(false));
+        assertEquals(songs.get(2), queue.retreat(false));
+        assertEquals(songs.get(4), queue.advance(false));
+    }
+
+    @Test
+    void playlistOrderFollowsInsertionsAndWraps() {
+        List<Song> songs = songs(5);
+        IndexedSongList list = new IndexedSongList(songs.subList(0, 4));
+        SongQueue queue = new SongQueue(new Random(12));
+        queue.reset(list, false, null);
+        assertEquals(songs.get(1), queue.advance(false));
+
+        list.add(2, songs.get(4));
+        assertEquals(songs.get(4), queue.advance(false));
+        assertEquals(songs.get(2), queue.advance(false));
+        assertEquals(songs.get(3), queue.advance(false));
+        assertNull(queue.advance(false));
+        assertEquals(songs.get(0), queue.advance(true));
+        assertEquals(songs.get(3), queue.retreat(true));
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import io.github.redstonemango.mangoplayer.back.config.PlaylistConfigWrapper;
+import io.github.redstonemango.mangoplayer.back.config.SongConfigWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SongUsageIndexTest {
+
+    /**
+     * Uses generated IDs, so songs and playlists that other tests of the same run put into the test app folder cannot affect the use counts.
+     */
+    private static List<Song> putSongs(int count) {
+        List<Song> songs = new ArrayList<>(count);
+        List<String> ids = UniqueIdGenerator.generateBatch(UniqueIdGenerator.IdUse.SONG_ID, count);
+        for (int i = 0; i < count; i++) {
+            Song song = new Song(ids.get(i), "Usage " + i, null, 0, 1);
+            SongConfigWrapper.loadConfig().putSong(song);
+            songs.add(song);
+        }
+        return songs;
+    }
+
+    private static Playlist addPlaylist(String name, List<Song> songs) {
+        Set<String> songIds = new LinkedHashSet<>();
+        songs.forEach(song -> songIds.add(song.getId()));
+        Playlist playlist = new Playlist(name, songIds, 0, 0);
+        playlist.ensureFields();
+        PlaylistConfigWrapper.loadConfig().addPlaylist(playlist);
+        return playlist;
+    }
+
+    private static void assertConsistent(String afterWhat) {
+        List<String> mismatches = SongUsageIndex.checkConsistency();
+        assertTrue(mismatches.isEmpty(), "Inconsistent after " + afterWhat + ": " + mismatches);
+    }
+
+    @Test
+    void indexStaysConsistentThroughPlaylistChanges() {
+        List<Song> songs = putSongs(10);
+        assertConsistent("loading"); // Builds the index, so all following changes are applied incrementally
+
+        Playlist materialized = addPlaylist("Usage A", songs.subList(0, 5));
+        Playlist idsOnly = addPlaylist("Usage B", songs.subList(3, 8));
+        assertConsistent("adding playlists");
+        assertEquals(2, SongUsageIndex.useCount(songs.get(3).getId()));
+
+        materialized.getSongs().add(songs.get(8));
+        materialized.getSongs().addAll(songs.subList(9, 10));
+        assertConsistent("adding songs");
+
+        materialized.getSongs().remove(songs.get(0));
+        materialized.removeSong(songs.get(1));
+        idsOnly.removeSong(songs.get(3)); // Without building the song list
+        assertConsistent("removing songs");
+        assertEquals(1, SongUsageIndex.useCount(songs.get(3).getId()));
+        assertEquals(0, SongUsageIndex.useCount(songs.get(0).getId()));
+
+        materialized.moveSong(0, materialized.getSongs().size() - 1);
+        materialized.moveSong(2, 0);
+        assertConsistent("moving songs");
+        assertEquals(materialized.getSongs().size(), materialized.getSongCount());
+
+        JsonObject move = new JsonObject();
+        move.addProperty("song", songs.get(5).getId());
+        move.addProperty("index", 0);
+        for (Playlist playlist : List.of(materialized, idsOnly)) { // Replay on a built and on an unbuilt song list
+            playlist.applyJournalRecord("songAdded", new JsonPrimitive(songs.get(0).getId()));
+            playlist.applyJournalRecord("songRemoved", new JsonPrimitive(songs.get(4).getId()));
+            playlist.applyJournalRecord("songMoved", move);
+            playlist.applyJournalRecord("songAdded", new JsonPrimitive(songs.get(0).getId())); // Applying a record twice is harmless
+        }
+        assertConsistent("replaying journal records");
+        assertEquals(2, SongUsageIndex.useCount(songs.get(0).getId()));
+        assertEquals(0, SongUsageIndex.useCount(songs.get(4).getId()));
+
+        PlaylistConfigWrapper.loadConfig().removePlaylist(idsOnly);
+        assertConsistent("removing a playlist");
+        assertEquals(Set.of(materialized), SongUsageIndex.playlistsContaining(songs.get(2).getId()));
+        assertTrue(SongUsageIndex.playlistsContaining(songs.get(6).getId()).isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.redstonemango.mangoplayer.back;
+
+import io.github.redstonemango.mangoplayer.back.config.SongConfigWrapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UniqueIdGeneratorTest {
+    private static final int SEEDED_SONGS = 2_000;
+
+    @Test
+    void batchIsUniqueAndAvoidsSeededIds() {
+        assertUniqueBatch(5_000);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void largeBatchIsUniqueAndAvoidsSeededIds() {
+        assertUniqueBatch(100_000);
+    }
+
+    private static void assertUniqueBatch(int batchSize) {
+        Set<String> seededIds = new HashSet<>();
+        for (int i = 0; i < SEEDED_SONGS; i++) {
+            Song song = new Song("seeded-" + i, "Seeded " + i, null, 0, 1);
+            SongConfigWrapper.loadConfig().putSong(song);
+        }
+        seededIds.addAll(SongConfigWrapper.loadConfig().songs.keySet());
+        UniqueIdGenerator.resetIndices(); // Seed the index from the songs above, even if another test used it before
+
+        long start = System.nanoTime();
+        List<String> ids = UniqueIdGenerator.generateBatch(UniqueIdGenerator.IdUse.SONG_ID, batchSize);
+        System.out.println("Generated " + batchSize + " song IDs in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+
+        assertEquals(batchSize, ids.size());
+        Set<String> uniqueIds = new HashSet<>(ids);
+        assertEquals(batchSize, uniqueIds.size(), "Batch contains duplicate IDs");
+        uniqueIds.retainAll(seededIds);
+        assertTrue(uniqueIds.isEmpty(), "Batch collides with seeded IDs: " + uniqueIds);
+
+        Set<String> nextIds = new HashSet<>(UniqueIdGenerator.generateBatch(UniqueIdGenerator.IdUse.SONG_ID, 1_000));
+        nextIds.retainAll(ids);
+        assertTrue(nextIds.isEmpty(), "A later batch repeats IDs of an earlier one: " + nextIds);
+    }
+}
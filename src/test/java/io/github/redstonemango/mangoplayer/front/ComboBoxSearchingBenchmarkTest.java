@@ -0,0 +1,61 @@
+package io.github.redstonemango.mangoplayer.front;
+
+import io.github.redstonemango.mangoplayer.back.SongSearchIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares filtering options by matching every option on each keystroke, as the ComboBoxes did before,
+ * with filtering them by the precomputed keys of a {@link ComboBoxSearching.SearchSnapshot}.<br>
+ * Excluded from regular builds, run it with {@code mvn test -Dtest.excludedGroups= -Dgroups=benchmark}.
+ */
+@Tag("benchmark")
+public class ComboBoxSearchingBenchmarkTest {
+    private static final int ITEM_COUNT = 100_000;
+    private static final int ROUNDS = 20;
+
+    @Test
+    void keyedFilterMatchesPerItemFilter() {
+        List<ComboBoxSearching.ISearchComparable> items = new ArrayList<>(ITEM_COUNT);
+        Random random = new Random(42);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            String text = "Song " + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36) + " " + i;
+            items.add(() -> text);
+        }
+        String[] queries = {"s", "so", "son", "song 1", "song 1a", "z"};
+
+        long keyBuildStart = System.nanoTime();
+        ComboBoxSearching.SearchSnapshot<ComboBoxSearching.ISearchComparable> snapshot = Objects.requireNonNull(ComboBoxSearching.SearchSnapshot.of(items, 0));
+        long keyBuildNanos = System.nanoTime() - keyBuildStart;
+
+        long perItemNanos = 0;
+        long keyedNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (String query : queries) {
+                long start = System.nanoTime();
+                List<ComboBoxSearching.ISearchComparable> matches = new ArrayList<>();
+                for (ComboBoxSearching.ISearchComparable item : items) {
+                    if (item.searchText().toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT))) matches.add(item);
+                }
+                perItemNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                List<ComboBoxSearching.ISearchComparable> keyedMatches = snapshot.filter(SongSearchIndex.normalize(query));
+                keyedNanos += System.nanoTime() - start;
+                assertEquals(matches, keyedMatches, "Keyed filter differs for query '" + query + "'");
+            }
+        }
+        int searches = ROUNDS * queries.length;
+        System.out.println("ComboBox search benchmark over " + ITEM_COUNT + " options: "
+                + "Matching every option took " + perItemNanos / searches / 1000 + "µs per search, "
+                + "precomputed keys took " + keyedNanos / searches / 1000 + "µs per search after building them once in " + keyBuildNanos / 1_000_000 + "ms");
+    }
+}